@@ -16,9 +16,15 @@
 
 package org.codavaj;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import org.codavaj.process.docparser.DocParser;
@@ -34,6 +40,19 @@ import org.codavaj.type.TypeFactory;
  * <ul>
  * <li> codavaj.file.encoding ... encoding for input javadoc, e.g. "ms932"
  * <li> codavaj.language ... language for input javadoc for version 6 (not necessary above v6), e.g. "ja"
+ * <li> codavaj.parser.threads ... number of threads parsing javadoc pages, default is available processors, "1" means serial
+ * <li> codavaj.parser.streaming ... "true" extracts javadoc 11+ type pages by events w/o building whole pages, bounded memory per page
+ * <li> codavaj.parser.incremental ... "true" keeps parsed types in "&lt;output-dir&gt;/.codavaj/cache" and parses only changed pages next time
+ * <li> codavaj.wget.threads ... number of parallel fetchers of "wget", default is "1", serial
+ * <li> codavaj.wget.connections.per.host ... max connections of "wget" to a host at once, default is "4"
+ * <li> codavaj.wget.incremental ... "true" refreshes a mirror by conditional requests, validators are kept in "&lt;output-dir&gt;.manifest"
+ * <li> codavaj.wget.resumable ... "true" journals a crawl of "wget" into "&lt;output-dir&gt;/.wget-journal" and resumes it when it was interrupted
+ * <li> codavaj.wget.engine ... "httpclient" fetches pages of "wget" by java.net.http with a streaming link scanner, default is "httpunit"
+ * <li> codavaj.wget.scope ... "parse-needed" makes "wget" follow only pages "codavaj" reads and pages leading to them
+ * <li> codavaj.wget.include, codavaj.wget.exclude ... regex of relative paths "wget" follows or not, e.g. "^java/util/"
+ * <li> codavaj.wget.max.depth ... max number of links "wget" follows from start pages
+ * <li> codavaj.wget.archive.compression ... "STORED" or "DEFLATED" (default), entries of a mirror written into "&lt;output&gt;.zip" or ".jar"
+ * <li> codavaj.capture.dir ... records pseudonymized pages and timings into the directory for offline profiling, see {@link org.codavaj.process.docparser.ParseRecorder}
  * </ul>
  */
 public class Main {
@@ -42,6 +61,7 @@ public class Main {
 
     private static final String usage_wget = "wget <url> <output-dir>";
     private static final String usage_parse = "codavaj <input-dir> <output-dir> {<external-link>}*";
+    private static final String usage_pipeline = "pipeline <url> <output-dir> {<external-link>}*";
 
     /**
      * Derive a reflection-like API from a javadoc source tree. Resolve any type names
@@ -66,14 +86,16 @@ public class Main {
     /**
      * The program entry point.
      * <p>
-     * command is "wget" or "codavaj".
+     * command is "wget", "codavaj" or "pipeline".
+     * "pipeline" mirrors into "&lt;output-dir&gt;/.codavaj/javadoc" and parses type pages
+     * as they are downloaded.
      * </p>
      *
      * @param args 0: command, 1: source url, 2: output dir, [3: encoding], [4: language]
      */
     public static void main(String[] args) throws Exception {
         if (args.length < 3) {
-            System.err.println("usage alternatives: \n\t" + usage_wget + "\n\t" + usage_parse);
+            System.err.println("usage alternatives: \n\t" + usage_wget + "\n\t" + usage_parse + "\n\t" + usage_pipeline);
 
             return;
         }
@@ -110,16 +132,59 @@ public class Main {
             dp.setJavadocDirName(input);
             dp.setExternalLinks(externalLinks);
             dp.addProgressListener(System.err::println);
+            if (Boolean.getBoolean("codavaj.parser.incremental")) {
+                dp.setCacheDirName(Paths.get(output, ".codavaj", "cache").toString());
+            }
             TypeFactory tf = dp.process();
 
-            SrcWriter sw = new SrcWriter();
-            sw.setSrcDirName(output);
-            // link the previously parsed javadocs with the writer
-            sw.setTypeFactory(tf);
-            sw.addProgressListener(System.err::println);
-            sw.process();
+            write(tf, output);
+        } else if ("pipeline".equals(cmd)) {
+            String javadocDir = Paths.get(output, ".codavaj", "javadoc").toString();
+            // pages downloaded, bounded not to go far ahead of the parser
+            BlockingQueue<String> pages = new ArrayBlockingQueue<>(1024);
+
+            Wget wget = new Wget();
+            wget.setRootUrl(input);
+            wget.setJavadocDirName(javadocDir);
+            wget.setPageQueue(pages);
+            wget.addProgressListener(System.err::println);
+
+            DocParser dp = new DocParser();
+            dp.setJavadocDirName(javadocDir);
+            dp.setExternalLinks(externalLinks);
+            dp.setPageQueue(pages);
+            dp.addProgressListener(System.err::println);
+            if (Boolean.getBoolean("codavaj.parser.incremental")) {
+                dp.setCacheDirName(Paths.get(output, ".codavaj", "cache").toString());
+            }
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<TypeFactory> parsed = executor.submit(dp::process);
+                try {
+                    wget.process();
+                } finally {
+                    pages.put(DocParser.END_OF_PAGES);
+                }
+                // constants and links are done after the crawl
+                TypeFactory tf = parsed.get();
+
+                write(tf, output);
+            } finally {
+                executor.shutdown();
+            }
         } else {
-            System.err.println("usage alternatives: \n\t" + usage_wget + "\n\t" + usage_parse);
+            System.err.println("usage alternatives: \n\t" + usage_wget + "\n\t" + usage_parse + "\n\t" + usage_pipeline);
         }
     }
+
+    /** writes sources of types */
+    private static void write(TypeFactory tf, String output) throws ProcessException {
+        SrcWriter sw = new SrcWriter();
+        sw.setSrcDirName(output);
+        // link the previously parsed javadocs with the writer
+        sw.setTypeFactory(tf);
+        sw.addProgressListener(System.err::println);
+        sw.process();
+    }
 }
@@ -16,9 +16,26 @@
 
 package org.codavaj.process.docparser;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -39,6 +56,9 @@ public class DocParser implements Progressive<TypeFactory> {
 
     private static final Logger logger = Logger.getLogger(DocParser.class.getName());
 
+    /** put into {@link #setPageQueue(BlockingQueue) the page queue} when the crawl is over */
+    public static final String END_OF_PAGES = "";
+
     /**
      * directory to find javadoc root.
      */
@@ -50,6 +70,37 @@ public class DocParser implements Progressive<TypeFactory> {
     private Pattern javadocClassName;
     private List<String> externalLinks;
 
+    /**
+     * number of threads parsing type pages, 1 means serial parsing.
+     */
+    private int threads = Integer.getInteger("codavaj.parser.threads", Runtime.getRuntime().availableProcessors());
+
+    /**
+     * directory to record the parse workload into, null means no recording.
+     * @see ParseRecorder
+     */
+    private String captureDirName = System.getProperty("codavaj.capture.dir");
+
+    /**
+     * whether to extract type pages by events for versions supporting it.
+     */
+    private boolean streaming = Boolean.getBoolean("codavaj.parser.streaming");
+
+    /**
+     * directory to keep parsed types in, null means every page is parsed.
+     * @see ParseCache
+     */
+    private String cacheDirName;
+
+    /**
+     * relative paths of pages mirrored so far, null means the javadoc tree is complete.
+     * @see #END_OF_PAGES
+     */
+    private BlockingQueue<String> pages;
+
+    /** whether {@link #END_OF_PAGES} was taken */
+    private boolean pagesEnded;
+
     /**
      * Identify all classes from the javadoc and then analyze each one in turn
      * to parse its information into Types.
@@ -57,6 +108,25 @@ public class DocParser implements Progressive<TypeFactory> {
      * @throws ProcessException failure to construct a TypeFactory.
      */
     public TypeFactory process() throws ProcessException {
+        pagesEnded = false;
+        try {
+            return processAll();
+        } finally {
+            if (pages != null) {
+                // the crawl must not be blocked by the queue even if parsing failed
+                try {
+                    while (takePage() != null) {
+                        // discarded
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /** */
+    private TypeFactory processAll() throws ProcessException {
 
         TypeFactory typeFactory = new TypeFactory();
 
@@ -64,11 +134,36 @@ public class DocParser implements Progressive<TypeFactory> {
 
         Map<Type, Exception> errors = new HashMap<>();
 
+        ParseRecorder recorder = null;
+
+        ParseCache cache = null;
+
+        // pages mirrored before the class index
+        Set<String> arrived = new LinkedHashSet<>();
+
         try {
+            if (pages != null) {
+                // the parser is determined by the class index
+                awaitIndex(arrived);
+            }
+
+            if (captureDirName != null) {
+                recorder = new ParseRecorder(captureDirName);
+            }
+
             // load and then process the list of all classes javadoc
 
-            parserUtil = ParserUtils.factory(javadocDirName);
+            parserUtil = ParserUtils.factory(javadocDirName, recorder);
             parserUtil.setExternalLinks(externalLinks);
+            parserUtil.setStreaming(streaming);
+
+            if (cacheDirName != null) {
+                if (recorder == null) {
+                    cache = new ParseCache(cacheDirName, parserUtil);
+                } else {
+                    logger.warning("cache is disabled while recording");
+                }
+            }
 
             for (int i = 0; i < parserUtil.getClasses().size(); i++) {
                 String typeName = parserUtil.getClasses().get(i);
@@ -81,22 +176,41 @@ public class DocParser implements Progressive<TypeFactory> {
             throw new ProcessException(e);
         }
 
-        // now the typeFactory is loaded with the type names
-        // we must go through each in turn
-        List<Type> alltypes = typeFactory.getTypes();
+        try {
+            // now the typeFactory is loaded with the type names
+            // we must go through each in turn
+            List<Type> alltypes = typeFactory.getTypes();
 
-        for (int i = 0; (alltypes != null) && (i < alltypes.size()); i++) {
-            Type type = alltypes.get(i);
-            notifyListeners(new ProgressEvent(i + 1, alltypes.size(), type.getTypeName()));
+            // type, names learned while parsing it
+            Map<Type, Collection<String>> learned = new ConcurrentHashMap<>();
+            if (pages != null) {
+                processTypes(parserUtil, cache, alltypes, learned, arrived, errors);
+            } else if (threads > 1) {
+                processTypes(parserUtil, cache, alltypes, learned, errors);
+            } else {
+                for (int i = 0; (alltypes != null) && (i < alltypes.size()); i++) {
+                    Type type = alltypes.get(i);
+                    notifyListeners(new ProgressEvent(i + 1, alltypes.size(), type.getTypeName()));
 
-            try {
-                parserUtil.processType(type);
-            } catch (Exception e) {
-                logger.severe("Class parsing failed on " + type.getTypeName());
+                    try {
+                        processType(parserUtil, cache, type, learned);
+                    } catch (Exception e) {
+                        logger.severe("Class parsing failed on " + type.getTypeName());
 errors.put(type, e);
-//                throw new ProcessException(e);
+//                    throw new ProcessException(e);
+                    }
+                }
+            }
+
+            // in order of types, so the same names win whichever type is parsed first
+            FullyQualifiedNameMap fqnm = parserUtil.getFullyQualifiedNameMap();
+            for (Type type : alltypes) {
+                learned.getOrDefault(type, Collections.emptySet()).forEach(fqnm::add);
+            }
+
+            if (cache != null) {
+                logger.info("cached types: " + cache);
             }
-        }
 
 errors.forEach((key, value) -> {
     System.err.println("******************: " + key.getShortName());
@@ -104,19 +218,239 @@ errors.forEach((key, value) -> {
     System.err.println(value.getMessage());
 });
 
+            try {
+                // try and determine all constants'
+                //info( parserUtil.prettyPrint(allconstants));
+                parserUtil.processConstant(typeFactory.getTypeMap(), javadocClassName != null);
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "All constant determination failed!", e);
+                throw new ProcessException(e);
+            }
+
+            if (recorder != null) {
+                try {
+                    recorder.flush();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "failed to write timings", e);
+                }
+            }
+
+            typeFactory.link();
+            typeFactory.setFullyQualifiedNameMap(parserUtil.getFullyQualifiedNameMap());
+
+            return typeFactory;
+        } finally {
+            try {
+                parserUtil.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "failed to close archives", e);
+            }
+        }
+    }
+
+    /**
+     * Parses a type, or reads it from the cache when its pages are not changed.
+     *
+     * @param cache nullable
+     * @param learned output, names learned while parsing the type, added to the name map after all types are parsed
+     */
+    private static void processType(ParserUtils parserUtil, ParseCache cache, Type type, Map<Type, Collection<String>> learned) throws IOException {
+        List<String> cached = new ArrayList<>();
+        if (cache != null && cache.load(type, cached)) {
+            learned.put(type, cached);
+            return;
+        }
+        FullyQualifiedNameMap fqnm = parserUtil.getFullyQualifiedNameMap();
+        Collection<String> names;
+        fqnm.startLearning();
         try {
-            // try and determine all constants'
-            //info( parserUtil.prettyPrint(allconstants));
-            parserUtil.processConstant(typeFactory.getTypeMap(), javadocClassName != null);
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "All constant determination failed!", e);
+            parserUtil.processType(type);
+        } finally {
+            names = fqnm.stopLearning();
+            learned.put(type, names);
+        }
+        if (cache != null) {
+            cache.store(type, names);
+        }
+    }
+
+    /**
+     * Parses types by a bounded worker pool. Progress events and errors are
+     * handled by the calling thread in order of completion, so the listeners
+     * and the error map are never touched concurrently.
+     *
+     * @param parserUtil the parser shared by workers
+     * @param cache nullable
+     * @param alltypes types to be parsed
+     * @param learned output, types and names learned while parsing them
+     * @param errors output, failed types and their causes
+     * @throws ProcessException the calling thread was interrupted
+     */
+    private void processTypes(ParserUtils parserUtil, ParseCache cache, List<Type> alltypes, Map<Type, Collection<String>> learned, Map<Type, Exception> errors) throws ProcessException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, alltypes.size())));
+        try {
+            CompletionService<Type> service = new ExecutorCompletionService<>(executor);
+            Map<Future<Type>, Type> futures = new HashMap<>();
+
+            for (Type type : alltypes) {
+                futures.put(service.submit(() -> {
+                    processType(parserUtil, cache, type, learned);
+                    return type;
+                }), type);
+            }
+
+            for (int i = 0; i < alltypes.size(); i++) {
+                Future<Type> future = service.take();
+                complete(future, futures.get(future), i + 1, alltypes.size(), errors);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new ProcessException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses types by a bounded worker pool as their pages are mirrored, while
+     * the crawl is running. A type is held back until the pages of its inner
+     * types listed in the class index are mirrored too, because those are read
+     * while the outer type is parsed. Types whose pages did not come, e.g.
+     * mirrored by a former crawl, are parsed after the crawl is over.
+     *
+     * @param arrived pages mirrored before the parser was made
+     * @see #processTypes(ParserUtils, ParseCache, List, Map, Map)
+     */
+    private void processTypes(ParserUtils parserUtil, ParseCache cache, List<Type> alltypes, Map<Type, Collection<String>> learned, Set<String> arrived, Map<Type, Exception> errors) throws ProcessException {
+        // page, type not submitted yet
+        Map<String, Type> waiting = new LinkedHashMap<>();
+        for (Type type : alltypes) {
+            waiting.put(ParserUtils.filenameFromTypename(type.getTypeName()), type);
+        }
+        // pages of all indexed types not mirrored yet, inner ones are read by outer ones
+        NavigableSet<String> missing = new TreeSet<>();
+        for (String typeName : parserUtil.getClasses()) {
+            missing.add(ParserUtils.filenameFromTypename(typeName));
         }
+        missing.removeAll(arrived);
 
-        typeFactory.link();
-        typeFactory.setFullyQualifiedNameMap(parserUtil.getFullyQualifiedNameMap());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            CompletionService<Type> service = new ExecutorCompletionService<>(executor);
+            Map<Future<Type>, Type> futures = new HashMap<>();
+            int done = 0;
+
+            for (String page : arrived) {
+                Type type = waiting.get(page);
+                if (type != null && !hasMissingInnerPages(page, missing)) {
+                    waiting.remove(page);
+                    futures.put(submit(service, parserUtil, cache, type, learned), type);
+                }
+            }
+
+            String page;
+            while ((page = takePage()) != null) {
+                missing.remove(page);
+                // the page itself and outer types which may wait for it
+                for (String candidate = page; candidate != null; candidate = outerPage(candidate)) {
+                    Type type = waiting.get(candidate);
+                    if (type != null && !hasMissingInnerPages(candidate, missing)) {
+                        waiting.remove(candidate);
+                        futures.put(submit(service, parserUtil, cache, type, learned), type);
+                    }
+                }
+
+                Future<Type> future;
+                while ((future = service.poll()) != null) {
+                    complete(future, futures.remove(future), ++done, alltypes.size(), errors);
+                }
+            }
 
-        return typeFactory;
+            for (Type type : waiting.values()) {
+                futures.put(submit(service, parserUtil, cache, type, learned), type);
+            }
+
+            while (!futures.isEmpty()) {
+                Future<Type> future = service.take();
+                complete(future, futures.remove(future), ++done, alltypes.size(), errors);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** @return whether a page of an inner type, e.g. "a/b/C.D.html" for "a/b/C.html", is not mirrored yet */
+    private static boolean hasMissingInnerPages(String page, NavigableSet<String> missing) {
+        String prefix = page.substring(0, page.length() - ".html".length()) + ".";
+        String next = missing.ceiling(prefix);
+        return next != null && next.startsWith(prefix);
+    }
+
+    /** @return the page of the enclosing type, e.g. "a/b/C.html" for "a/b/C.D.html", null when not an inner type */
+    private static String outerPage(String page) {
+        if (!page.endsWith(".html")) {
+            return null;
+        }
+        String name = page.substring(0, page.length() - ".html".length());
+        int p = name.lastIndexOf('.');
+        return p > name.lastIndexOf('/') ? name.substring(0, p) + ".html" : null;
+    }
+
+    /** */
+    private static Future<Type> submit(CompletionService<Type> service, ParserUtils parserUtil, ParseCache cache, Type type, Map<Type, Collection<String>> learned) {
+        return service.submit(() -> {
+            processType(parserUtil, cache, type, learned);
+            return type;
+        });
+    }
+
+    /**
+     * Takes a parsed type on the calling thread.
+     *
+     * @param errors output, failed types and their causes
+     */
+    private void complete(Future<Type> future, Type type, int done, int total, Map<Type, Exception> errors) throws InterruptedException {
+        notifyListeners(new ProgressEvent(done, total, type.getTypeName()));
+
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            logger.severe("Class parsing failed on " + type.getTypeName());
+            errors.put(type, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+    }
+
+    /**
+     * Takes pages mirrored until a class index comes.
+     *
+     * @param arrived output, pages taken
+     */
+    private void awaitIndex(Set<String> arrived) throws InterruptedException {
+        Set<String> indexNames = ParserUtils.getFirstIndexFileNames();
+        String page;
+        while ((page = takePage()) != null) {
+            arrived.add(page);
+            if (indexNames.contains(page)) {
+                return;
+            }
+        }
+        // the crawl is over, the index may be mirrored by a former crawl
+    }
+
+    /** @return the next page mirrored, null when the crawl is over */
+    private String takePage() throws InterruptedException {
+        if (pagesEnded) {
+            return null;
+        }
+        String page = pages.take();
+        if (END_OF_PAGES.equals(page)) {
+            pagesEnded = true;
+            return null;
+        }
+        return page;
     }
 
     /**
@@ -144,4 +478,40 @@ errors.forEach((key, value) -> {
     public void setJavadocClassName(String javadocClassName) {
         this.javadocClassName = Pattern.compile(javadocClassName);
     }
+
+    /**
+     * @param threads the number of threads parsing type pages, 1 means serial parsing.
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * @param streaming whether to extract type pages by events for versions supporting it.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * @param captureDirName the directory to record the parse workload into, null means no recording.
+     */
+    public void setCaptureDirName(String captureDirName) {
+        this.captureDirName = captureDirName;
+    }
+
+    /**
+     * @param cacheDirName the directory to keep parsed types in, null means every page is parsed.
+     */
+    public void setCacheDirName(String cacheDirName) {
+        this.cacheDirName = cacheDirName;
+    }
+
+    /**
+     * @param pages relative paths of pages mirrored so far, types are parsed as their pages come.
+     *        {@link #END_OF_PAGES} must be put when the crawl is over. null means the javadoc tree is complete.
+     */
+    public void setPageQueue(BlockingQueue<String> pages) {
+        this.pages = pages;
+    }
 }
@@ -6,23 +6,112 @@
 
 package org.codavaj.process.docparser;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Optional;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.codavaj.type.Type;
+import org.codavaj.type.TypeReference;
 
 /**
  * FullyQualifiedNameMap.
+ * <p>
+ * shared by all parser threads, so this is a concurrent map.
+ * </p>
+ * <p>
+ * mappings are not changed while types are parsed, so a name resolves the
+ * same whichever thread parses first. names a type learns, e.g. by a fully
+ * qualified link, are kept for the type between {@link #startLearning()} and
+ * {@link #stopLearning()} and {@link #add(String) added} after the parse
+ * in order of types.
+ * </p>
+ * <p>
+ * values are indexed in reverse, so {@link #containsValue(Object)} is a hash lookup
+ * instead of a scan. {@link #put(String, String)}, {@link #remove(Object)},
+ * {@link #putAll(Map)} and {@link #clear()} keep the index, other mutators of
+ * the super class must not be used.
+ * </p>
  *
  * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
  * @version 0.00 2019/06/07 umjammer initial version <br>
  */
-public class FullyQualifiedNameMap extends HashMap<String, String> {
+public class FullyQualifiedNameMap extends ConcurrentHashMap<String, String> {
 
     private static final Logger logger = Logger.getLogger(FullyQualifiedNameMap.class.getName());
 
+    /** names of classes in java.lang, e.g. "String", "Thread$State", null when the runtime image is not readable */
+    private static final Set<String> javaLangNames = listJavaLang();
+
+    /** @return names of classes in java.lang of the runtime image, null when failed */
+    private static Set<String> listJavaLang() {
+        try (Stream<Path> files = Files.list(FileSystems.getFileSystem(URI.create("jrt:/")).getPath("/modules/java.base/java/lang"))) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.endsWith(".class") && !n.equals("package-info.class"))
+                    .map(n -> n.substring(0, n.length() - ".class".length()))
+                    .collect(Collectors.toSet());
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.FINE, "java.lang is looked up by reflection", e);
+            return null;
+        }
+    }
+
+    /** nested name, e.g. "Inner" or "Mid$Inner", fully qualified names ending with it, e.g. "a.Outer$Mid$Inner" */
+    private final Map<String, Set<String>> nestedNames = new ConcurrentHashMap<>();
+
+    /** max entries of {@link #resolved}, it is cleared when full */
+    private static final int MAX_RESOLVED = 64 * 1024;
+
+    /** counts changes of mappings, resolutions made before a change are stale */
+    private final AtomicLong generation = new AtomicLong();
+
+    /** a resolution and the generation it was made at */
+    private static class Resolved {
+        final long generation;
+        final String name;
+        Resolved(long generation, String name) {
+            this.generation = generation;
+            this.name = name;
+        }
+    }
+
+    /** context and raw text, resolution */
+    private final Map<String, Resolved> resolved = new ConcurrentHashMap<>();
+
+    /** fully qualified name, short names mapped to it */
+    private final Map<String, Set<String>> keysByValue = new ConcurrentHashMap<>();
+
+    /** short name, fully qualified names seen, names colliding across packages are kept */
+    private final Map<String, Set<String>> qualifiedNames = new ConcurrentHashMap<>();
+
+    /** names learned by a type being parsed */
+    private static class Learned {
+        /** fully qualified names in order learned */
+        final Set<String> names = new LinkedHashSet<>();
+        /** short name, fully qualified name, as {@link FullyQualifiedNameMap#add(String)} would map */
+        final Map<String, String> slots = new HashMap<>();
+        /** counts lookups answered by slots or names learned */
+        int uses;
+    }
+
+    /** names learned by the type parsed on the thread, null when not parsing */
+    private final ThreadLocal<Learned> learning = new ThreadLocal<>();
+
     /** { short name, fully qualified name } */
     public FullyQualifiedNameMap() {
         put(Void.TYPE.toString(), Void.TYPE.toString());
@@ -40,37 +129,195 @@ public class FullyQualifiedNameMap extends HashMap<String, String> {
      * @param fqn fully qualified name
      */
     public void add(String fqn) {
+        String shortName = fqn.substring(fqn.lastIndexOf(".") + 1);
+        qualifiedNames.computeIfAbsent(shortName, k -> ConcurrentHashMap.newKeySet()).add(fqn);
         if (!containsValue(fqn)) {
 //System.err.println("1: " + fqn);
-            put(fqn.substring(fqn.lastIndexOf(".") + 1), fqn);
+            put(shortName, fqn);
+        }
+    }
+
+    /**
+     * Starts keeping names learned by a type parsed on the calling thread
+     * apart from the mappings. those are visible to the type only.
+     */
+    public void startLearning() {
+        learning.set(new Learned());
+    }
+
+    /**
+     * @return fully qualified names learned since {@link #startLearning()}
+     *         in order, to be {@link #add(String) added} after the parse
+     */
+    public Collection<String> stopLearning() {
+        Learned learned = learning.get();
+        learning.remove();
+        return learned != null ? learned.names : Collections.emptySet();
+    }
+
+    /** adds the name, or keeps it for the type being parsed */
+    private void learn(String fqn) {
+        Learned learned = learning.get();
+        if (learned == null) {
+            add(fqn);
+        } else {
+            learned.uses++;
+            if (learned.names.add(fqn) && !containsValue(fqn)) {
+                learned.slots.put(fqn.substring(fqn.lastIndexOf(".") + 1), fqn);
+            }
         }
     }
 
+    /**
+     * @param shortName e.g. "List"
+     * @return fully qualified names seen for the short name, e.g. "java.util.List" and "java.awt.List"
+     */
+    public Set<String> getFullyQualifiedNames(String shortName) {
+        Set<String> names = qualifiedNames.get(shortName);
+        return names != null ? Collections.unmodifiableSet(names) : Collections.emptySet();
+    }
+
+    @Override
+    public String put(String key, String value) {
+        String[] previous = new String[1];
+        // the bin is locked while the index is updated
+        compute(key, (k, old) -> {
+            if (old != null) {
+                unindex(k, old);
+            }
+            if (!value.equals(old)) {
+                generation.incrementAndGet();
+            }
+            index(k, value);
+            previous[0] = old;
+            return value;
+        });
+        return previous[0];
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> m) {
+        m.forEach(this::put);
+    }
+
+    @Override
+    public String remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String[] previous = new String[1];
+        computeIfPresent((String) key, (k, old) -> {
+            generation.incrementAndGet();
+            unindex(k, old);
+            previous[0] = old;
+            return null;
+        });
+        return previous[0];
+    }
+
+    @Override
+    public void clear() {
+        generation.incrementAndGet();
+        super.clear();
+        keysByValue.clear();
+        qualifiedNames.clear();
+    }
+
+    /** a hash lookup by the reverse index */
+    @Override
+    public boolean containsValue(Object value) {
+        Set<String> keys = keysByValue.get(value);
+        return keys != null && !keys.isEmpty();
+    }
+
+    /** */
+    private void index(String key, String value) {
+        keysByValue.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(key);
+        qualifiedNames.computeIfAbsent(value.substring(value.lastIndexOf(".") + 1), k -> ConcurrentHashMap.newKeySet()).add(value);
+        // every enclosing level, "a.Outer$Mid$Inner" is found by "Mid$Inner" and "Inner"
+        for (int i = value.indexOf('$', value.lastIndexOf(".") + 1); i > 0; i = value.indexOf('$', i + 1)) {
+            nestedNames.computeIfAbsent(value.substring(i + 1), k -> new ConcurrentSkipListSet<>()).add(value);
+        }
+    }
+
+    /** */
+    private void unindex(String key, String value) {
+        keysByValue.computeIfPresent(value, (v, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Resolves a type reference once while the mappings are not changed.
+     * a resolution must depend on the mappings, the context and the raw text only,
+     * and it must not change the mappings when it is made again.
+     *
+     * @param context what the resolution depends on besides the mappings, e.g. a package
+     * @param raw a type reference as written
+     * @param resolver resolves the raw text by this map
+     */
+    public String resolve(String context, String raw, UnaryOperator<String> resolver) {
+        String key = context + '\0' + raw;
+        long current = generation.get();
+        Learned learned = learning.get();
+        // a name learned by the type being parsed shadows ones shared
+        boolean shadowed = learned != null && !learned.slots.isEmpty() &&
+                learned.slots.containsKey(TypeReference.parse(raw).getName());
+        Resolved cached = resolved.get(key);
+        if (cached != null && cached.generation == current && !shadowed) {
+            return cached.name;
+        }
+
+        int uses = learned != null ? learned.uses : 0;
+        String name = resolver.apply(raw);
+
+        // a resolution which changed the mappings is kept by the next one,
+        // one which used or learned names of a type being parsed is not shared
+        if (generation.get() == current && (learned == null || learned.uses == uses)) {
+            if (resolved.size() >= MAX_RESOLVED) {
+                resolved.clear();
+            }
+            resolved.put(key, new Resolved(current, name));
+        }
+        return name;
+    }
+
     /**
      * @param typeName short name
      */
     public String toFullyQualifiedName(Type type, String typeName) {
+        // type parameters of the type decide whether a name is a type variable
+        return resolve(type.getPackageName() + '\0' + type.getTypeParameters(), typeName, t -> resolve(type, t));
+    }
+
+    /**
+     * a type of the same package comes first, then names learned by the type
+     * being parsed, then shared mappings.
+     */
+    private String resolve(Type type, String typeName) {
 //System.err.println("2: " + typeName);
-        typeName = typeName.replaceAll("<[\\w\\.\\[\\]\\$\\_\\s,\\*\\?]+>", "");
-        if (containsKey(typeName)) {
+        TypeReference reference = TypeReference.parse(typeName);
+        typeName = reference.getName() + reference.getArraySuffix();
+        String className = (!type.getPackageName().isEmpty() ? type.getPackageName() + "." : "") + typeName;
+        Learned learned = learning.get();
+        if (!typeName.contains(".") && getFullyQualifiedNames(typeName).contains(className)) {
+            return className;
+        } else if (learned != null && learned.slots.containsKey(typeName)) {
+            learned.uses++;
+            return learned.slots.get(typeName);
+        } else if (containsKey(typeName)) {
             return get(typeName);
         } else {
             if (typeName.contains(".")) {
-                add(typeName);
+                learn(typeName);
                 return typeName;
             } else {
                 if (type.isTypeParameter(typeName)) {
 //System.err.println("0: " + typeName);
                     return typeName;
                 } else {
-                    String className = (!type.getPackageName().isEmpty() ? type.getPackageName() + "." : "") + typeName;
-                    if (containsKey(className)) {
-//System.err.println("3: " + typeName + ", " + className);
-                        put(typeName, className);
-                        return className;
-                    } else {
-                        return guess(typeName);
-                    }
+                    return guess(typeName);
                 }
             }
         }
@@ -81,24 +328,37 @@ public class FullyQualifiedNameMap extends HashMap<String, String> {
      * @return if guess is failed, return self
      */
     public String guess(String typeName) {
-        try {
-            Class<?> clazz = Class.forName("java.lang." + typeName);
-            String className = clazz.getName();
-            put(typeName, className);
+        if (isJavaLang(typeName)) {
+            String className = "java.lang." + typeName;
+            learn(className);
             return className;
-        } catch (ClassNotFoundException e) {
-//System.err.println("4: ---");
-//values().stream().forEach(s -> System.err.println("4: " + s));
-            Optional<String> found = values().stream().map(n -> n + "$" + typeName).filter(tn ->
-                values().stream().anyMatch(n -> n.equals(tn))
-            ).findFirst();
-            if (found.isPresent()) {
-                return found.get();
-            } else {
-                logger.log(Level.WARNING, "not found: " + typeName);
-                return typeName;
+        }
+
+        // a nested type whose enclosing type is known
+        Set<String> candidates = nestedNames.get(typeName);
+        if (candidates != null) {
+            for (String candidate : candidates) {
+                if (containsValue(candidate) && containsValue(candidate.substring(0, candidate.length() - typeName.length() - 1))) {
+                    return candidate;
+                }
             }
         }
+
+        logger.log(Level.WARNING, "not found: " + typeName);
+        return typeName;
+    }
+
+    /** */
+    private static boolean isJavaLang(String typeName) {
+        if (javaLangNames != null) {
+            return javaLangNames.contains(typeName);
+        }
+        try {
+            Class.forName("java.lang." + typeName);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
     }
 }
 
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.docparser;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.xerces.xni.parser.XMLDocumentFilter;
+import org.cyberneko.html.filters.ElementRemover;
+import org.cyberneko.html.filters.Purifier;
+import org.cyberneko.html.parsers.SAXParser;
+import org.dom4j.Document;
+import org.dom4j.io.SAXContentHandler;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+
+/**
+ * Holds a configured nekohtml parser per thread.
+ * <p>
+ * features, properties and the filter chain are set only once when a thread
+ * parses its first page, after that a parser is just reset by xerces at
+ * the beginning of each document. when the state nekohtml leaves over
+ * documents cannot be cleared, a parser is made for each document instead.
+ * </p>
+ * <p>
+ * the dom4j document is built directly from the sax events, there is no
+ * intermediate xerces dom. the tree is the same as the one
+ * {@link org.dom4j.io.DOMReader} made from the html dom, element names are
+ * upper case and entity references are kept as entity nodes.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class HtmlParserHolder {
+
+    private static final Logger logger = Logger.getLogger(HtmlParserHolder.class.getName());
+
+    /** supplies the element remover of the parser version */
+    private final Supplier<ElementRemover> removerSupplier;
+
+    /** a content handler per thread, it is reset at the start of each document */
+    private final ThreadLocal<HtmlContentHandler> handlers = ThreadLocal.withInitial(HtmlContentHandler::new);
+
+    /** a parser per thread */
+    private final ThreadLocal<SAXParser> parsers;
+
+    /**
+     * @param removerSupplier called once per thread
+     */
+    HtmlParserHolder(Supplier<ElementRemover> removerSupplier) {
+        this.removerSupplier = removerSupplier;
+        this.parsers = ThreadLocal.withInitial(() -> createParser(this.removerSupplier.get(), handlers.get()));
+    }
+
+    /**
+     * @param remover the last filter
+     * @param handler receives the filtered events
+     * @throws IllegalStateException when a feature or a property is not supported
+     */
+    static SAXParser createParser(ElementRemover remover, HtmlContentHandler handler) {
+        try {
+            SAXParser parser = new ReusableParser();
+
+            parser.setFeature("http://cyberneko.org/html/features/augmentations", true);
+            parser.setFeature("http://cyberneko.org/html/features/report-errors", false);
+            parser.setProperty("http://cyberneko.org/html/properties/names/elems", "lower");
+            parser.setProperty("http://cyberneko.org/html/properties/names/attrs", "lower");
+
+            parser.setFeature("http://apache.org/xml/features/scanner/notify-char-refs", true);
+            parser.setFeature("http://cyberneko.org/html/features/scanner/notify-builtin-refs", true);
+
+            XMLDocumentFilter[] filters = new XMLDocumentFilter[] {
+                new Purifier(),
+                remover
+            };
+            parser.setProperty("http://cyberneko.org/html/properties/filters", filters);
+
+            parser.setContentHandler(handler);
+            parser.setProperty("http://xml.org/sax/properties/lexical-handler", handler);
+
+            return parser;
+        } catch (SAXException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Parses a html page by the parser of the current thread.
+     *
+     * @param html javadoc page
+     * @return dom4j document
+     */
+    Document parse(InputSource html) throws SAXException, IOException {
+        SAXParser parser = reuse(parsers.get(), () -> createParser(removerSupplier.get(), handlers.get()));
+        parsers.set(parser);
+        parser.parse(html);
+        return handlers.get().getDocument();
+    }
+
+    /**
+     * Prepares a parser made by {@link #createParser(ElementRemover, HtmlContentHandler)}
+     * for the next document.
+     *
+     * @param factory makes a new parser
+     * @return the parser when it is not used yet or its state is cleared, otherwise a new one
+     */
+    static SAXParser reuse(SAXParser parser, Supplier<SAXParser> factory) {
+        if (((ReusableParser) parser).prepare()) {
+            return parser;
+        }
+        SAXParser fresh = factory.get();
+        ((ReusableParser) fresh).prepare();
+        return fresh;
+    }
+
+    /** HTMLConfiguration#fTagBalancer */
+    private static final Field tagBalancerField;
+
+    /** HTMLTagBalancer#forcedStartElement_ and HTMLTagBalancer#forcedEndElement_ */
+    private static final Field[] forcedFields;
+
+    /** false after the flags could not be cleared, parsers are not reused then */
+    private static volatile boolean clearable;
+
+    static {
+        Field tagBalancer;
+        Field[] forced;
+        try {
+            tagBalancer = Class.forName("org.cyberneko.html.HTMLConfiguration").getDeclaredField("fTagBalancer");
+            tagBalancer.setAccessible(true);
+            Class<?> c = Class.forName("org.cyberneko.html.HTMLTagBalancer");
+            forced = new Field[] { c.getDeclaredField("forcedStartElement_"), c.getDeclaredField("forcedEndElement_") };
+            for (Field field : forced) {
+                field.setAccessible(true);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.log(Level.WARNING, "forced flags of the tag balancer are not accessible, a parser is made for each page", e);
+            tagBalancer = null;
+            forced = null;
+        }
+        tagBalancerField = tagBalancer;
+        forcedFields = forced;
+        clearable = forced != null;
+    }
+
+    /**
+     * A parser which is reused for many documents.
+     * <p>
+     * the tag balancer of nekohtml 1.9.16 sets "forced end element" when it
+     * closes open elements at the end of a document and never clears it, so
+     * whitespace after {@code </head>} of the next document is not dropped as
+     * in the first one. the flags are cleared before each document, a parser
+     * whose flags cannot be cleared must not be used again.
+     * </p>
+     */
+    private static class ReusableParser extends SAXParser {
+
+        /** a document was parsed */
+        private boolean used;
+
+        /** @return false when the parser was used and its flags cannot be cleared */
+        boolean prepare() {
+            if (used && !clearForced()) {
+                return false;
+            }
+            used = true;
+            return true;
+        }
+
+        /** @return false when not cleared */
+        private boolean clearForced() {
+            if (!clearable) {
+                return false;
+            }
+            try {
+                Object tagBalancer = tagBalancerField.get(fConfiguration);
+                for (Field field : forcedFields) {
+                    field.setBoolean(tagBalancer, false);
+                }
+                return true;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                clearable = false;
+                logger.log(Level.WARNING, "forced flags of the tag balancer are not cleared, a parser is made for each page", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Makes the same tree as {@link org.dom4j.io.DOMReader} does from
+     * the {@link org.apache.html.dom.HTMLDocumentImpl} nekohtml creates.
+     */
+    static class HtmlContentHandler extends SAXContentHandler {
+
+        HtmlContentHandler() {
+            // xerces dom joins adjacent characters into a text node
+            setMergeAdjacentText(true);
+        }
+
+        /* html dom upper-cases names of elements w/o namespace */
+        @Override
+        public void startElement(String namespaceURI, String localName, String qualifiedName, Attributes attributes) throws SAXException {
+            if (namespaceURI == null || namespaceURI.isEmpty()) {
+                localName = localName.toUpperCase(Locale.ENGLISH);
+                qualifiedName = qualifiedName.toUpperCase(Locale.ENGLISH);
+            }
+            super.startElement(namespaceURI, localName, qualifiedName, attributes);
+        }
+
+        /* html has no end of a doctype, comments after it would be dropped as in a dtd */
+        @Override
+        public void startDTD(String name, String publicId, String systemId) throws SAXException {
+            super.startDTD(name, publicId, systemId);
+            super.endDTD();
+        }
+
+        /* "&lt;", "&gt;" etc. also became entity reference nodes in the dom */
+        @Override
+        protected boolean isIgnorableEntity(String name) {
+            return false;
+        }
+    }
+}
+
+/* */
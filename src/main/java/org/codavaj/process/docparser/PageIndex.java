@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.docparser;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.dom4j.Branch;
+import org.dom4j.Document;
+import org.dom4j.Element;
+
+
+/**
+ * Section roots of a javadoc type page, found by looking at the top of the page.
+ * <p>
+ * a selector like {@code //TABLE[contains(text(),'Fields')]/TR} scans the
+ * whole page including navigation bars, and a type page is queried more than
+ * a dozen times. pages of javadoc 8 or later are made of a class header
+ * holding the label, followed by a container of the inheritance tree, the
+ * description, the summary and the details blocks. this keeps the roots of
+ * those blocks, so such a selector is evaluated only in its block as
+ * {@code .//TABLE[...]/TR}.
+ * </p>
+ * <p>
+ * parsers only replace links and detach some nodes while parsing, roots
+ * are never removed, so an index is valid until a page is done.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class PageIndex {
+
+    /** blocks of a type page */
+    enum Section {
+        /** label of the type */
+        HEADER,
+        /** declaration and comment of the type */
+        DESCRIPTION,
+        /** summary tables of members */
+        SUMMARY,
+        /** details of members */
+        DETAILS
+    }
+
+    /** blocks in the container following the header, in document order */
+    private static final Section[] containerSections = { Section.DESCRIPTION, Section.SUMMARY, Section.DETAILS };
+
+    /** section, its root */
+    private final Map<Section, Element> roots = new EnumMap<>(Section.class);
+
+    /** */
+    private final Document document;
+
+    /**
+     * Looks at children of the root element and of the container only.
+     *
+     * @param labelName element name of the type label, e.g. "H2"
+     */
+    PageIndex(Document document, String labelName) {
+        this.document = document;
+        Element root = document.getRootElement();
+        if (root == null) {
+            return;
+        }
+        Element header = null;
+        for (Element element : root.elements()) {
+            if (header == null) {
+                if ("DIV".equals(element.getName()) && element.element(labelName) != null) {
+                    header = element;
+                    roots.put(Section.HEADER, header);
+                }
+            } else if ("DIV".equals(element.getName())) {
+                int i = 0;
+                for (Element block : element.elements("DIV")) {
+                    if (i == containerSections.length) {
+                        break;
+                    }
+                    roots.put(containerSections[i++], block);
+                }
+                break;
+            }
+        }
+    }
+
+    /** @return whether the page is made of sections, pages before javadoc 8 or indices are not */
+    boolean isSectioned() {
+        return !roots.isEmpty();
+    }
+
+    /**
+     * @return the root of the section, the whole document when the page is not
+     *         sectioned, null when the page does not have the section
+     */
+    Branch scope(Section section) {
+        return isSectioned() ? roots.get(section) : document;
+    }
+
+    /**
+     * Rewrites "//NAME..." into ".//NAME..." evaluated from a scope.
+     *
+     * @throws IllegalArgumentException the xpath does not start with "//"
+     */
+    static String scoped(String xpath) {
+        if (!xpath.startsWith("//")) {
+            throw new IllegalArgumentException(xpath);
+        }
+        return "." + xpath;
+    }
+}
+
+/* */
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.docparser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.codavaj.type.Type;
+import org.codavaj.type.TypeInputStream;
+import org.codavaj.type.TypeOutputStream;
+
+
+/**
+ * Parsed types kept on disk, keyed by the contents of their pages.
+ * <p>
+ * a type is saved with the sha-256 digests of its page and the pages of
+ * its inner types, which are parsed together with it. the next time, the
+ * type is read from the cache when all those pages have the same digests
+ * and the parser is the same version for the same language, encoding,
+ * external links and class index, names in a page are resolved by those.
+ * otherwise the type is parsed and saved again.
+ * </p>
+ * <p>
+ * fully qualified names learned while parsing a type are saved with it,
+ * a type read from the cache gives them again to be added to the name map.
+ * </p>
+ * <p>
+ * constant values are not given by type pages, those are determined from
+ * the constant values page on every run.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ParseCache {
+
+    private static final Logger logger = Logger.getLogger(ParseCache.class.getName());
+
+    /** "CDVJ" */
+    private static final int MAGIC = 0x4344564a;
+
+    /** increment when the format, the model or the rules resolving names change */
+    private static final int VERSION = 4;
+
+    /** */
+    private static final String SUFFIX = ".bin";
+
+    /** cache directory */
+    private final Path dir;
+
+    /** */
+    private final ParserUtils parserUtil;
+
+    /** parser version, language, encoding, external links and the digest of the class index */
+    private final String context;
+
+    /** */
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /** */
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * @param dir the cache directory, created if not exists
+     * @param parserUtil parser of the javadoc
+     */
+    ParseCache(String dir, ParserUtils parserUtil) throws IOException {
+        this.dir = Paths.get(dir);
+        Files.createDirectories(this.dir);
+        this.parserUtil = parserUtil;
+        this.context = parserUtil.getClass().getName() + "/" + parserUtil.rb.getLocale() + "/" +
+                parserUtil.getEncoding() + "/" + parserUtil.externalLinks + "/" + indexDigest(parserUtil);
+    }
+
+    /**
+     * @return hex sha-256 of the classes listed in the index and the fully
+     *         qualified name map made from those before any type is parsed
+     */
+    private static String indexDigest(ParserUtils parserUtil) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (String typeName : new TreeSet<>(parserUtil.getClasses())) {
+                md.update((typeName + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            md.update((byte) 0);
+            for (Map.Entry<String, String> e : new TreeMap<>(parserUtil.getFullyQualifiedNameMap()).entrySet()) {
+                md.update((e.getKey() + "=" + e.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads a type from the cache.
+     *
+     * @param type only the name is set
+     * @param learned output, fully qualified names learned while the type was parsed
+     * @return false when not cached or pages were changed, the type and learned are not modified in that case
+     */
+    boolean load(Type type, Collection<String> learned) {
+        Path path = dir.resolve(type.getTypeName() + SUFFIX);
+        try (TypeInputStream is = new TypeInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (is.readInt() != MAGIC || is.readCount() != VERSION || !context.equals(is.readString())) {
+                misses.incrementAndGet();
+                return false;
+            }
+            int pages = is.readCount();
+            for (int i = 0; i < pages; i++) {
+                String typeName = is.readString();
+                byte[] digest = new byte[is.readCount()];
+                is.readFully(digest);
+                if (!Arrays.equals(digest, digest(typeName))) {
+logger.fine("changed: " + typeName);
+                    misses.incrementAndGet();
+                    return false;
+                }
+            }
+            List<String> names = new ArrayList<>();
+            int count = is.readCount();
+            for (int i = 0; i < count; i++) {
+                names.add(is.readString());
+            }
+            try {
+                is.readType(type);
+            } catch (IOException | RuntimeException e) {
+                type.clear();
+                throw e;
+            }
+            learned.addAll(names);
+            hits.incrementAndGet();
+            return true;
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return false;
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.FINE, "broken cache: " + path, e);
+            misses.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Saves a parsed type, a failure is only logged.
+     *
+     * @param type parsed
+     * @param learned fully qualified names learned while parsing the type
+     */
+    void store(Type type, Collection<String> learned) {
+        Path path = dir.resolve(type.getTypeName() + SUFFIX);
+        Path temp = null;
+        try {
+            List<String> pages = new ArrayList<>();
+            collectPages(type, pages);
+
+            temp = Files.createTempFile(dir, type.getTypeName(), ".tmp");
+            try (TypeOutputStream os = new TypeOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                os.writeInt(MAGIC);
+                os.writeCount(VERSION);
+                os.writeString(context);
+                os.writeCount(pages.size());
+                for (String typeName : pages) {
+                    byte[] digest = digest(typeName);
+                    os.writeString(typeName);
+                    os.writeCount(digest.length);
+                    os.write(digest);
+                }
+                os.writeCount(learned.size());
+                for (String name : learned) {
+                    os.writeString(name);
+                }
+                os.writeType(type);
+            }
+            // readers see a whole entry or the previous one
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "failed to cache " + type.getTypeName(), e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException f) {
+logger.fine("cannot delete " + temp);
+                }
+            }
+        }
+    }
+
+    /** the type and its inner types, their pages were read to parse the type */
+    private static void collectPages(Type type, List<String> pages) {
+        pages.add(type.getTypeName());
+        for (Type innerType : type.getInnerTypeList()) {
+            collectPages(innerType, pages);
+        }
+    }
+
+    /** @return sha-256 of the page of the type */
+    private byte[] digest(String typeName) throws IOException {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            try (InputStream is = parserUtil.openTypePage(typeName).getByteStream()) {
+                int r;
+                while ((r = is.read(buffer)) != -1) {
+                    md.update(buffer, 0, r);
+                }
+            }
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** @return "hits/total" */
+    @Override
+    public String toString() {
+        return hits.get() + "/" + (hits.get() + misses.get());
+    }
+}
+
+/* */
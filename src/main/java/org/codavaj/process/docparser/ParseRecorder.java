@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.docparser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.dom4j.Attribute;
+import org.dom4j.Comment;
+import org.dom4j.Document;
+import org.dom4j.Node;
+import org.dom4j.Text;
+import org.dom4j.VisitorSupport;
+import org.dom4j.io.HTMLWriter;
+import org.dom4j.io.OutputFormat;
+
+
+/**
+ * Records a parse workload for offline profiling.
+ * <p>
+ * every page is saved as the shape ParserUtils sees after filtering, all
+ * words are replaced by pseudonyms of the same length. the same word always
+ * gets the same pseudonym in texts, links and file names, and different words
+ * never get the same one, so the recorded directory is a javadoc tree again
+ * and can be parsed by {@link DocParser}. a pseudonym is longer than its word
+ * only when words of the same shape, e.g. one letter names, run out of ones.
+ * javadoc boilerplate (the i18n tokens, java keywords and the "Generated by
+ * javadoc" comment) is kept as it is, the parser depends on it.
+ * </p>
+ * <p>
+ * time spent on each stage of each page is written into {@value #TIMINGS_FILE_NAME}.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class ParseRecorder {
+
+    private static final Logger logger = Logger.getLogger(ParseRecorder.class.getName());
+
+    /** page, stage, nano seconds separated by tab */
+    public static final String TIMINGS_FILE_NAME = "timings.tsv";
+
+    /** words the parser looks for */
+    private static final List<String> keywords = Arrays.asList(
+        "public", "protected", "private", "static", "abstract", "final", "strictfp", "default",
+        "native", "synchronized", "transient", "volatile",
+        "class", "interface", "enum", "extends", "implements", "throws", "super",
+        "void", "boolean", "byte", "char", "short", "int", "long", "float", "double",
+        "java", "javax", "lang", "Object", "Enum", "String",
+        "http", "https", "docs", "oracle", "com", "sun", "api", "html"
+    );
+
+    /** recorded directory */
+    private final Path dir;
+
+    /** kept as it is, longer first */
+    private volatile List<String> vocabulary;
+
+    /** never stored, so pseudonyms are not reversible */
+    private final byte[] salt = new byte[16];
+
+    /** word, pseudonym */
+    private final Map<String, String> pseudonyms = new ConcurrentHashMap<>();
+
+    /** pseudonym, word */
+    private final Map<String, String> words = new ConcurrentHashMap<>();
+
+    /** rounds of salting again on collisions before a pseudonym gets longer */
+    private static final int ROUNDS = 16;
+
+    /** lines of timings */
+    private final Queue<String> timings = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param dir the directory to record into
+     */
+    public ParseRecorder(String dir) throws IOException {
+        this.dir = Paths.get(dir);
+        Files.createDirectories(this.dir);
+        new SecureRandom().nextBytes(salt);
+        this.vocabulary = List.copyOf(keywords);
+    }
+
+    /**
+     * @param rb tokens of the javadoc language, those are not replaced
+     */
+    void setTokens(ResourceBundle rb) {
+        Set<String> words = new HashSet<>(keywords);
+        for (String key : rb.keySet()) {
+            words.add(rb.getString(key));
+        }
+        List<String> vocabulary = new ArrayList<>(words);
+        vocabulary.sort(Comparator.comparingInt(String::length).reversed());
+        this.vocabulary = List.copyOf(vocabulary);
+    }
+
+    /**
+     * Saves a page.
+     *
+     * @param relativePath a path from the javadoc root, e.g. "java/lang/String.html"
+     * @param document filtered page, not modified
+     */
+    void recordPage(String relativePath, Document document) {
+        write(relativePath, scrub(document));
+    }
+
+    /**
+     * Saves the class index page with the metadata {@link ParserUtils#factory(String)} needs.
+     *
+     * @param relativePath a path from the javadoc root, e.g. "allclasses-index.html"
+     * @param document filtered page, not modified
+     * @param metadata the html element and comments of the same page
+     */
+    void recordIndexPage(String relativePath, Document document, Document metadata) {
+        Document shape = scrub(document);
+
+        Node lang = metadata.selectSingleNode("/HTML/@lang");
+        if (lang != null) {
+            shape.getRootElement().addAttribute("lang", lang.getText());
+        }
+        String generated = "//comment()[contains(., \"Generated by javadoc\")]";
+        Node generator = metadata.selectSingleNode(generated);
+        if (generator != null && shape.selectSingleNode(generated) == null) {
+            shape.getRootElement().addComment(generator.getText());
+        }
+
+        write(relativePath, shape);
+    }
+
+    /** @return a scrubbed copy */
+    private Document scrub(Document document) {
+        Document shape = (Document) document.clone();
+        shape.accept(new VisitorSupport() {
+            @Override
+            public void visit(Text node) {
+                node.setText(scrub(node.getText()));
+            }
+
+            @Override
+            public void visit(Attribute node) {
+                node.setValue(scrub(node.getValue()));
+            }
+
+            @Override
+            public void visit(Comment node) {
+                if (!node.getText().contains("Generated by javadoc")) {
+                    node.setText(scrub(node.getText()));
+                }
+            }
+        });
+        return shape;
+    }
+
+    /** writes a shape as html */
+    private void write(String relativePath, Document shape) {
+        Path path = dir.resolve(scrub(relativePath.replace('\\', '/')));
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream os = Files.newOutputStream(path)) {
+                OutputFormat format = new OutputFormat();
+                format.setEncoding("UTF-8");
+                format.setSuppressDeclaration(true);
+                // void elements like BR must not be closed
+                HTMLWriter writer = new HTMLWriter(os, format);
+                writer.write(shape);
+                writer.flush();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "failed to record " + relativePath, e);
+        }
+    }
+
+    /**
+     * @param relativePath page
+     * @param stage name of the stage
+     * @param nanos elapsed time
+     */
+    void recordTiming(String relativePath, String stage, long nanos) {
+        timings.add(scrub(relativePath.replace('\\', '/')) + "\t" + stage + "\t" + nanos);
+    }
+
+    /**
+     * Writes timings recorded so far.
+     */
+    public void flush() throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = timings.poll()) != null) {
+            lines.add(line);
+        }
+        Collections.sort(lines);
+        try (Writer writer = Files.newBufferedWriter(dir.resolve(TIMINGS_FILE_NAME), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String l : lines) {
+                writer.write(l);
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Replaces words except the vocabulary by pseudonyms of the same length,
+     * other characters are kept.
+     */
+    String scrub(String text) {
+        List<String> vocabulary = this.vocabulary;
+
+        StringBuilder sb = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            String known = vocabularyAt(vocabulary, text, i);
+            if (known != null) {
+                sb.append(known);
+                i += known.length();
+            } else if (isWordChar(text.charAt(i))) {
+                int j = i + 1;
+                while (j < text.length() && isWordChar(text.charAt(j)) && vocabularyAt(vocabulary, text, j) == null) {
+                    j++;
+                }
+                sb.append(pseudonym(text.substring(i, j)));
+                i = j;
+            } else {
+                sb.append(text.charAt(i++));
+            }
+        }
+        return sb.toString();
+    }
+
+    /** @return a vocabulary word starts at the index, or null */
+    private static String vocabularyAt(List<String> vocabulary, String text, int index) {
+        for (String word : vocabulary) {
+            if (word.isEmpty() || !text.startsWith(word, index)) {
+                continue;
+            }
+            // latin words must be whole words, others (e.g. japanese) are not separated by spaces
+            if (isLatin(word) &&
+                ((index > 0 && isWordChar(text.charAt(index - 1)) && isLatin(text.substring(index - 1, index))) ||
+                 (index + word.length() < text.length() && isWordChar(text.charAt(index + word.length())) && isLatin(text.substring(index + word.length(), index + word.length() + 1))))) {
+                continue;
+            }
+            return word;
+        }
+        return null;
+    }
+
+    /** */
+    private static boolean isLatin(String word) {
+        return word.chars().allMatch(c -> c < 0x80);
+    }
+
+    /** */
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * @return a pseudonym not taken by other words nor in the vocabulary
+     */
+    private String pseudonym(String word) {
+        return pseudonyms.computeIfAbsent(word, w -> {
+            for (int round = 0; ; round++) {
+                String candidate = pseudonym(w, round, round / ROUNDS);
+                if (!vocabulary.contains(candidate) && words.putIfAbsent(candidate, w) == null) {
+                    return candidate;
+                }
+            }
+        });
+    }
+
+    /**
+     * keeps the kind of each character.
+     *
+     * @param round times of collisions
+     * @param extra number of lower case letters appended
+     */
+    private String pseudonym(String word, int round, int extra) {
+        byte[] hash = digest(word, round);
+        StringBuilder sb = new StringBuilder(word.length() + extra);
+        for (int i = 0; i < word.length() + extra; i++) {
+            char c = i < word.length() ? word.charAt(i) : 'a';
+            int h = hash[i % hash.length] & 0xff;
+            if (i >= hash.length) {
+                h = (h + i) & 0xff;
+            }
+            if (Character.isDigit(c)) {
+                sb.append((char) ('0' + h % 10));
+            } else if (Character.isUpperCase(c)) {
+                sb.append((char) ('A' + h % 26));
+            } else if (Character.isLetter(c)) {
+                sb.append((char) ('a' + h % 26));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** */
+    private byte[] digest(String word, int round) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(salt);
+            md.update(ByteBuffer.allocate(4).putInt(round).array());
+            return md.digest(word.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
+
+/* */
@@ -16,17 +16,28 @@
 
 package org.codavaj.process.docparser;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -34,12 +45,18 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.ResourceBundle;
 import java.util.ServiceLoader;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.codavaj.process.docparser.PageIndex.Section;
 import org.codavaj.type.EnumConst;
 import org.codavaj.type.Field;
 import org.codavaj.type.Method;
@@ -47,10 +64,10 @@ import org.codavaj.type.Modifiable;
 import org.codavaj.type.Parameter;
 import org.codavaj.type.Type;
 import org.cyberneko.html.filters.ElementRemover;
+import org.dom4j.Branch;
 import org.dom4j.Document;
 import org.dom4j.Element;
 import org.dom4j.Node;
-import org.dom4j.io.DOMReader;
 import org.dom4j.io.OutputFormat;
 import org.dom4j.io.XMLWriter;
 import org.dom4j.tree.DefaultText;
@@ -62,7 +79,7 @@ import static com.rainerhahnekamp.sneakythrow.Sneaky.sneaked;
 /**
  * for version ~ 1.6.x
  */
-public class ParserUtils implements Parser {
+public class ParserUtils implements Parser, Closeable {
 
     private static final Logger logger = Logger.getLogger(ParserUtils.class.getName());
 
@@ -91,7 +108,7 @@ public class ParserUtils implements Parser {
      * @param typename the typename - "java.lang.String"
      * @return filename "java/lang/String.html"
      */
-    private static String filenameFromTypename(String typename) {
+    static String filenameFromTypename(String typename) {
         typename = typename.replace('.', '/');
         typename = typename.replace('$', '.');
 
@@ -156,7 +173,7 @@ logger.fine("unhandled tag: " + text);
             break;
         case "exception":
         case "throws":
-            Node typeNode = dd.selectSingleNode("*[position()=1]");
+            Node typeNode = registry.selectSingleNode(dd, "*[position()=1]");
             String comment;
             String typeName;
             if (typeNode != null && typeNode.getNodeType() == Node.ELEMENT_NODE && "A".equals(typeNode.getName())) {
@@ -225,7 +242,7 @@ logger.fine("ignore 3: " + dd.asXML());
     /** Processes A */
     private String processA(Node a) {
 logger.fine("A: " + a.asXML());
-        String href = a.valueOf("@href");
+        String href = registry.valueOf(a, "@href");
         if ((href.startsWith("http") || href.startsWith("../")) &&
                 href.replace(".html#", ".").contains(a.getText().replaceAll("\\([\\w$_\\.,\\s\\[\\]]*\\)", ""))) {
             String link = hrefToLink(href);
@@ -295,7 +312,7 @@ logger.finer("node: " + (node.getName() == null ? "TEXT" : node.getName()) + ":
                 } else if ("P".equals(node.getName())) {
                     determineComment(t, replaceA(((Element) node), false), commentText);
                 } else if ("DL".equals(node.getName())) {
-                    List<Node> nodes = node.selectNodes("*[name()='DT' or name()='DD']");
+                    List<Node> nodes = registry.selectNodes(node, "*[name()='DT' or name()='DD']");
                     int j = 0;
                     while (j < nodes.size()) {
                         Node dt = nodes.get(j++);
@@ -409,7 +426,7 @@ logger.finer("ignore 1.0: " + before.getText() + node.asXML());
         if (enclosingNode == null) {
             return null;
         }
-        Node node = enclosingNode.selectSingleNode(".//DL/DT[contains(text(), '" + rb.getString("token.default") + "')]/../DD");
+        Node node = registry.selectSingleNode(enclosingNode, ".//DL/DT[contains(text(), '" + rb.getString("token.default") + "')]/../DD");
         return node != null ? node.getText() : null;
     }
 
@@ -481,7 +498,7 @@ logger.finer("ignore 1.0: " + before.getText() + node.asXML());
         determineComment(type, commentNodes, commentText);
 
         // for type parameter
-        allNodes = typeXml.selectNodes("//DL/DT[contains(text(),'" + rb.getString("token.type_parameter") + "')]/..");
+        allNodes = selectNodes(typeXml, "//DL/DT[contains(text(),'" + rb.getString("token.type_parameter") + "')]/..");
         determineComment(type, allNodes, commentText);
 
         type.setComment(commentText);
@@ -510,7 +527,7 @@ logger.finer("ignore 1.0: " + before.getText() + node.asXML());
 
     /** constants */
     protected void determineConstants(String xpath, Document allConstants, Map<String, Type> types, boolean lenient) {
-        List<Node> constantList = allConstants.selectNodes(xpath);
+        List<Node> constantList = selectNodes(allConstants, xpath);
         for (int i = 0; (constantList != null) && (i < constantList.size());
                 i++) {
             Node constantNode = constantList.get(i);
@@ -529,9 +546,9 @@ logger.finer("ignore 1.0: " + before.getText() + node.asXML());
             </TR>
             */
             String[] xpaths = getConstantsXpaths();
-            String typeName = javadocLinkToTypename(constantNode.valueOf(xpaths[0]));
-            String fieldName = constantNode.valueOf(xpaths[1]);
-            String constantValue = constantNode.valueOf(xpaths[2]);
+            String typeName = javadocLinkToTypename(registry.valueOf(constantNode, xpaths[0]));
+            String fieldName = registry.valueOf(constantNode, xpaths[1]);
+            String constantValue = registry.valueOf(constantNode, xpaths[2]);
 
             //logger.fine( typeName + "#" + fieldName +"=" +constantValue );
             Type type = types.get(typeName);
@@ -706,8 +723,8 @@ logger.finer("ignore 1.0: " + before.getText() + node.asXML());
             if (c.parseOn) {
                 if (c.node.getNodeType() == Node.TEXT_NODE) {
                     c.text += c.node.getStringValue();
-                } else if ((c.node.getNodeType() == Node.ELEMENT_NODE) && "A".equals(c.node.getName()) && c.node.getText().length() > 1 && c.node.valueOf("@href").contains(c.node.getText())) {
-                    c.text += javadocLinkToTypename(c.node.valueOf("@href"));
+                } else if ((c.node.getNodeType() == Node.ELEMENT_NODE) && "A".equals(c.node.getName()) && c.node.getText().length() > 1 && registry.valueOf(c.node, "@href").contains(c.node.getText())) {
+                    c.text += javadocLinkToTypename(registry.valueOf(c.node, "@href"));
                 } else if ((c.node.getNodeType() == Node.ELEMENT_NODE) && "A".equals(c.node.getName())) {
                     c.text += convertNodesToString((Element) c.node);
                 } else if ((c.node.getNodeType() == Node.ELEMENT_NODE) && "H3".equals(c.node.getName())) { // v.13
@@ -910,7 +927,7 @@ logger.finer("ignore 1.0: " + before.getText() + node.asXML());
     /** fields */
     protected void determineFields(Type type, Document typeXml, String nameXpath) {
         String fieldsXpath = getFieldsXpath();
-        List<Node> fieldList = typeXml.selectNodes(fieldsXpath);
+        List<Node> fieldList = selectNodes(typeXml, Section.SUMMARY, fieldsXpath);
 if (fieldList == null || fieldList.isEmpty()) {
  // TODO so f*cking
  // if jdk supported xpath2.0, we could use regex for xpath
@@ -918,7 +935,7 @@ if (fieldList == null || fieldList.isEmpty()) {
   if (!fieldsXpath.equals(fieldsXpath.replace("サマリー", "概要"))) {
    logger.warning("no fields: " + fieldsXpath);
    fieldsXpath = fieldsXpath.replace("サマリー", "概要");
-   fieldList = typeXml.selectNodes(fieldsXpath);
+   fieldList = selectNodes(typeXml, Section.SUMMARY, fieldsXpath);
    logger.fine("fields: " + fieldList.size());
   }
  }
@@ -930,7 +947,7 @@ if (fieldList == null || fieldList.isEmpty()) {
             Node fieldNode = fieldList.get(i);
 
             // get the return type description for known types
-            Element fieldtypeNode = (Element) fieldNode.selectSingleNode("TD[position()=1]");
+            Element fieldtypeNode = (Element) registry.selectSingleNode(fieldNode, "TD[position()=1]");
 
             String fieldtypeParam = convertNodesToString(fieldtypeNode);
 
@@ -943,7 +960,7 @@ if (fieldList == null || fieldList.isEmpty()) {
             field.setTypeArgumentList(temp.getTypeArgumentList());
 
             // now we get the parameter list
-            Element fieldNameNode = (Element) fieldNode.selectSingleNode(nameXpath);
+            Element fieldNameNode = (Element) registry.selectSingleNode(fieldNode, nameXpath);
             String fieldName = fieldNameNode.getText();
 
 //            logger.fine("fieldname: " + fieldName);
@@ -965,12 +982,12 @@ if (fieldList == null || fieldList.isEmpty()) {
 
     /** inner types */
     protected void determineInnerTypes(Type type, Document typeXml, String nameXpath) throws IOException {
-        List<Node> innerTypeNodes = typeXml.selectNodes(getInnerTypesXpath());
+        List<Node> innerTypeNodes = selectNodes(typeXml, Section.SUMMARY, getInnerTypesXpath());
 
         for (int i = 0; innerTypeNodes != null && i < innerTypeNodes.size(); i++) {
             Node innerTypeNode = innerTypeNodes.get(i);
 
-            String innerTypeName = convertNodesToString(innerTypeNode.selectSingleNode(nameXpath));
+            String innerTypeName = convertNodesToString(registry.selectSingleNode(innerTypeNode, nameXpath));
 logger.fine(innerTypeName);
 
             Type innerType = type.createInnerType();
@@ -993,7 +1010,7 @@ logger.fine(innerTypeName);
 
     /** enum constants */
     protected void determineEnumConsts(String enumConstsXpath, Type type, Document typeXml, String nameXpath) {
-        List<Node> enumConstList = typeXml.selectNodes( enumConstsXpath );
+        List<Node> enumConstList = selectNodes(typeXml, Section.SUMMARY, enumConstsXpath);
 
         for (int i = 0; (enumConstList != null) && (i < enumConstList.size()); i++) {
             EnumConst enumConst = type.createEnumConst();
@@ -1001,7 +1018,7 @@ logger.fine(innerTypeName);
             Node enumConstNode = enumConstList.get(i);
 
             // now we get the parameter list
-            Element enumConstNameNode = (Element) enumConstNode.selectSingleNode(nameXpath);
+            Element enumConstNameNode = (Element) registry.selectSingleNode(enumConstNode, nameXpath);
             String enumConstName = enumConstNameNode.getText();
 
             //logger.fine( "enumConstName: " + enumConstName );
@@ -1045,12 +1062,12 @@ logger.fine(innerTypeName);
     /** constructor */
     protected List<Node> getConstructorParamlistNodes(Node methodNode) {
         // now we get the parameter list
-        Element paramlistNode = (Element) methodNode.selectSingleNode(
+        Element paramlistNode = (Element) registry.selectSingleNode(methodNode,
                 "TD[position()=2]");
 
         if (paramlistNode == null) {
             // constructor table is simplified if all constructors are public
-            paramlistNode = (Element) methodNode.selectSingleNode(
+            paramlistNode = (Element) registry.selectSingleNode(methodNode,
                     "TD[position()=1]");
         }
 
@@ -1059,7 +1076,7 @@ logger.fine(innerTypeName);
 
     /** constructor */
     protected void determineConstructors(String constructorsXpath, Type type, Document typeXml) {
-        List<Node> methodList = typeXml.selectNodes(constructorsXpath);
+        List<Node> methodList = selectNodes(typeXml, Section.SUMMARY, constructorsXpath);
 if (methodList == null || methodList.isEmpty()) {
  // TODO so f*cking
  // if jdk supported xpath2.0, we could use regex for xpath
@@ -1067,7 +1084,7 @@ if (methodList == null || methodList.isEmpty()) {
   if (!constructorsXpath.equals(constructorsXpath.replace("サマリー", "概要"))) {
    logger.warning("no constructors: " + constructorsXpath);
    constructorsXpath = constructorsXpath.replace("サマリー", "概要");
-   methodList = typeXml.selectNodes(constructorsXpath);
+   methodList = selectNodes(typeXml, Section.SUMMARY, constructorsXpath);
    logger.fine("constructors: " + methodList.size());
   }
  }
@@ -1098,9 +1115,9 @@ if (methodList == null || methodList.isEmpty()) {
             // logger.fine( paramNode.getNodeTypeName()+" "+paramNode.getStringValue() );
             // need to combine method description into a single text which can then
             // be parsed easily. TypeVariables tend to have length 1 ( E, V, K etc. ) which can easily match one character of the link to the generic parent
-            if (paramNode.getNodeType() == Node.ELEMENT_NODE && "A".equals(paramNode.getName()) && paramNode.getText().length() > 1 && paramNode.valueOf("@href").contains(paramNode.getText())) {
+            if (paramNode.getNodeType() == Node.ELEMENT_NODE && "A".equals(paramNode.getName()) && paramNode.getText().length() > 1 && registry.valueOf(paramNode, "@href").contains(paramNode.getText())) {
                 // reference to type
-                methodParams.append(javadocLinkToTypename(paramNode.valueOf("@href")));
+                methodParams.append(javadocLinkToTypename(registry.valueOf(paramNode, "@href")));
             } else if (paramNode.getNodeType() == Node.ELEMENT_NODE) {
                 // reference to a parameterized type - use just the name
                 methodParams.append(convertNodesToString((Element) paramNode));
@@ -1254,9 +1271,9 @@ if (methodList == null || methodList.isEmpty()) {
     protected String convertNodesToString(Node paramNode) {
         // need to combine method description into a single text which can then
         // be parsed easily. If we link to another type rather than a generic type variable, the name of the link's text matches the classname
-        if (paramNode.getNodeType() == Node.ELEMENT_NODE && "A".equals(paramNode.getName()) && paramNode.getText().length() > 1 && paramNode.valueOf("@href").contains(paramNode.getText())) {
+        if (paramNode.getNodeType() == Node.ELEMENT_NODE && "A".equals(paramNode.getName()) && paramNode.getText().length() > 1 && registry.valueOf(paramNode, "@href").contains(paramNode.getText())) {
             // reference to type
-            return javadocLinkToTypename(paramNode.valueOf("@href"));
+            return javadocLinkToTypename(registry.valueOf(paramNode, "@href"));
         } else if (paramNode.getNodeType() == Node.ELEMENT_NODE) {
             return convertNodesToString((Element)paramNode);
         } else if (paramNode.getNodeType() == Node.TEXT_NODE) {
@@ -1339,14 +1356,14 @@ if (methodList == null || methodList.isEmpty()) {
     /** method */
     protected List<Node> getMethodParamlistNodes(Node methodNode) {
         // now we get the parameter list
-        Element paramlistNode = (Element) methodNode.selectSingleNode("TD[position()=2]");
+        Element paramlistNode = (Element) registry.selectSingleNode(methodNode, "TD[position()=2]");
         return paramlistNode.content();
     }
 
     /** method */
     protected void determineMethods(String methodXpath, Type type, Document typeXml) {
 
-        List<Node> methodList = typeXml.selectNodes(methodXpath);
+        List<Node> methodList = selectNodes(typeXml, Section.SUMMARY, methodXpath);
 if (methodList == null || methodList.isEmpty()) {
  // TODO so f*cking
  // if jdk supported xpath2.0, we could use regex for xpath
@@ -1354,7 +1371,7 @@ if (methodList == null || methodList.isEmpty()) {
   if (!methodXpath.equals(methodXpath.replace("サマリー", "概要"))) {
    logger.warning("no methods: " + methodXpath);
    methodXpath = methodXpath.replace("サマリー", "概要");
-   methodList = typeXml.selectNodes(methodXpath);
+   methodList = selectNodes(typeXml, Section.SUMMARY, methodXpath);
    logger.fine("methods: " + methodList.size());
   }
  }
@@ -1366,7 +1383,7 @@ if (methodList == null || methodList.isEmpty()) {
             Node methodNode = methodList.get(i);
 
             // get the return type
-            Element returnparamNode = (Element) methodNode.selectSingleNode("TD[position()=1]");
+            Element returnparamNode = (Element) registry.selectSingleNode(methodNode, "TD[position()=1]");
 
             String methodReturnParam = convertNodesToString(returnparamNode);
 
@@ -1416,7 +1433,7 @@ if (methodList == null || methodList.isEmpty()) {
     /** annotation elements. */
     protected void determineElements(Type type, Document typeXml, String nameXpath) {
         String[] xpaths = getElementsXpaths();
-        List<Node> methodList = typeXml.selectNodes(xpaths[0]);
+        List<Node> methodList = selectNodes(typeXml, Section.SUMMARY, xpaths[0]);
 
         for (int i = 0; (methodList != null) && (i < methodList.size()); i++) {
             Method method = type.createMethod();
@@ -1424,7 +1441,7 @@ if (methodList == null || methodList.isEmpty()) {
             Node methodNode = methodList.get(i);
 
             // get the return type
-            Element returnparamNode = (Element) methodNode.selectSingleNode("TD[position()=1]");
+            Element returnparamNode = (Element) registry.selectSingleNode(methodNode, "TD[position()=1]");
 
             String methodReturnParam = convertNodesToString(returnparamNode);
 
@@ -1433,13 +1450,13 @@ if (methodList == null || methodList.isEmpty()) {
             method.setReturnParameter(returnType);
 
             // now we get the element name
-            Element elemenNameNode = (Element) methodNode.selectSingleNode(nameXpath);
+            Element elemenNameNode = (Element) registry.selectSingleNode(methodNode, nameXpath);
 
             String elementName = elemenNameNode.getText();
             method.setName(elementName);
         }
 
-        methodList = typeXml.selectNodes(xpaths[1]);
+        methodList = selectNodes(typeXml, Section.SUMMARY, xpaths[1]);
 
         for (int i = 0; (methodList != null) && (i < methodList.size()); i++) {
             Method method = type.createMethod();
@@ -1447,7 +1464,7 @@ if (methodList == null || methodList.isEmpty()) {
             Node methodNode = methodList.get(i);
 
             // get the return type
-            Element returnparamNode = (Element) methodNode.selectSingleNode("TD[position()=1]");
+            Element returnparamNode = (Element) registry.selectSingleNode(methodNode, "TD[position()=1]");
 
             String methodReturnParam = convertNodesToString(returnparamNode);
 
@@ -1456,7 +1473,7 @@ if (methodList == null || methodList.isEmpty()) {
             method.setReturnParameter(returnType);
 
             // now we get the element name
-            Element elemenNameNode = (Element) methodNode.selectSingleNode(nameXpath);
+            Element elemenNameNode = (Element) registry.selectSingleNode(methodNode, nameXpath);
 
             String elementName = elemenNameNode.getText();
             method.setName(elementName);
@@ -1542,7 +1559,7 @@ if (methodList == null || methodList.isEmpty()) {
 
     /** */
     protected List<String> getAllFqTypenames(Document alltypesXml, String xpath) {
-        List<Node> classes = alltypesXml.selectNodes(xpath);
+        List<Node> classes = selectNodes(alltypesXml, xpath);
         List<String> result = new ArrayList<>();
 
         for (Node node : classes) {
@@ -1584,7 +1601,7 @@ if (methodList == null || methodList.isEmpty()) {
      * @return whether the HTML represents an interface.
      */
     private boolean isInterface(Document typeXml) {
-        String classHeader = typeXml.valueOf("//" + getLabelXpath());
+        String classHeader = valueOf(typeXml, Section.HEADER, "//" + getLabelXpath());
 
         // <H2>org.jumpi.spi.component Interface SequenceGenerator</H2>
         if (classHeader != null) {
@@ -1601,7 +1618,7 @@ if (methodList == null || methodList.isEmpty()) {
      * @return whether the HTML represents an interface.
      */
     private boolean isAnnotation(Document typeXml) {
-        String classHeader = typeXml.valueOf("//" + getLabelXpath());
+        String classHeader = valueOf(typeXml, Section.HEADER, "//" + getLabelXpath());
         //<H2>org.codavaj.javadoc.input Annotation Type AnnotationClass</H2>
         if (classHeader != null) {
             return containsToken(rb.getString("token.annotation"), classHeader ) && containsToken(rb.getString("token.type"), classHeader);
@@ -1617,7 +1634,7 @@ if (methodList == null || methodList.isEmpty()) {
      * @return whether the HTML represents a class.
      */
     private boolean isClass(Document typeXml) {
-        String classHeader = typeXml.valueOf("//" + getLabelXpath());
+        String classHeader = valueOf(typeXml, Section.HEADER, "//" + getLabelXpath());
 
         // <H2>org.jumpi.impl.connector.mpi11 Class MpiDestination</H2>
         if (classHeader != null) {
@@ -1633,7 +1650,7 @@ if (methodList == null || methodList.isEmpty()) {
      * @return whether the HTML represents an enum.
      */
     private boolean isEnum(Document typeXml) {
-        String classHeader = typeXml.valueOf("//" + getLabelXpath());
+        String classHeader = valueOf(typeXml, Section.HEADER, "//" + getLabelXpath());
 
         if (classHeader != null) {
             return containsToken(rb.getString("token.enum"), classHeader);
@@ -1669,7 +1686,7 @@ if (methodList == null || methodList.isEmpty()) {
         </DL>
         */
         String xpath = "//DT[starts-with(normalize-space(text()),'extends')]";
-        List<Node> extendedTypeDTs = typeXml.selectNodes(xpath);
+        List<Node> extendedTypeDTs = selectNodes(typeXml, xpath);
         // there should only be one
         if (extendedTypeDTs != null && extendedTypeDTs.size() > 1) {
             logger.log(Level.WARNING, "There should only be one extends");
@@ -1728,10 +1745,11 @@ if (methodList == null || methodList.isEmpty()) {
         </DL>
         */
 
-        Element typeDescriptorElement = (Element) typeXml.selectSingleNode("//DT[parent::DL/preceding-sibling::H2 and string-length(.) > 0 and not(contains(.,'All')) and not(contains(.,'Enclosing')) and not(contains(.,'Direct')) and not(contains(.,'Type Parameters:')) and not(contains(.,'Parameters:')) and not(contains(.,'Returns:'))]");
+        Element typeDescriptorElement = (Element) selectSingleNode(typeXml, "//DT[parent::DL/preceding-sibling::H2 and string-length(.) > 0 and not(contains(.,'All')) and not(contains(.,'Enclosing')) and not(contains(.,'Direct')) and not(contains(.,'Type Parameters:')) and not(contains(.,'Parameters:')) and not(contains(.,'Returns:'))]");
         if (typeDescriptorElement == null) {
-            String typeDescriptorXpath = "//DT[contains(text(),'" + type.getLabelString() + " " + type.getShortName() + "')]";
-            typeDescriptorElement = (Element) typeXml.selectSingleNode(typeDescriptorXpath);
+            String typeDescriptorXpath = "//DT[contains(text(), concat($label, ' ', $shortName))]";
+            typeDescriptorElement = (Element) selectSingleNode(typeXml, typeDescriptorXpath,
+                    "label", type.getLabelString(), "shortName", type.getShortName());
 //System.err.println(typeDescriptorElement.asXML());
         }
         String typeDescriptor = convertNodesToString(typeDescriptorElement);
@@ -1804,7 +1822,7 @@ if (methodList == null || methodList.isEmpty()) {
         */
         String extension = t.isInterface() ? "extends" : "implements";
 
-        List<Node> implementsTypeDTs = typeXml.selectNodes("//DT[starts-with(normalize-space(text()),'" + extension + "')]");
+        List<Node> implementsTypeDTs = selectNodes(typeXml, "//DT[starts-with(normalize-space(text()), $extension)]", "extension", extension);
         for (int i = 0; (implementsTypeDTs != null) && (i < implementsTypeDTs.size()); i++) {
             Node node = implementsTypeDTs.get(i);
 
@@ -1840,8 +1858,8 @@ logger.finest("token: " + typeName);
         }
     }
 
-    /** i18n */
-    protected static ResourceBundle rb;
+    /** i18n, per instance because parsers of different javadoc trees may run at the same time */
+    protected ResourceBundle rb;
 
     /** determines language */
     protected boolean isLanguageOf(Locale locale) {
@@ -1872,18 +1890,30 @@ logger.finer("lang: " + rb.getLocale().getLanguage());
         }
     }
 
-    /** gets a class name index file name */
-    private static String getFirstIndexFilePath(String dir) {
+    /**
+     * gets a class name index file name
+     * @param archives archives opened, output
+     */
+    private static String getFirstIndexFilePath(String dir, Map<Path, FileSystem> archives) {
         ServiceLoader<Parser> loader = ServiceLoader.load(Parser.class);
         for (Parser parser : loader) {
             String file = dir + fileSeparator(dir) + parser.getFirstIndexFileName();
-            if (exists(file)) {
+            if (exists(file, archives)) {
                 return file;
             }
         }
         throw new NoSuchElementException(dir);
     }
 
+    /** @return class name index file names of all versions, relative to a javadoc dir */
+    static Set<String> getFirstIndexFileNames() {
+        Set<String> names = new HashSet<>();
+        for (Parser parser : ServiceLoader.load(Parser.class)) {
+            names.add(parser.getFirstIndexFileName());
+        }
+        return names;
+    }
+
     /** factory */
     private static Parser getParser(String version) {
         ServiceLoader<Parser> loader = ServiceLoader.load(Parser.class);
@@ -1917,10 +1947,15 @@ logger.finer("lang: " + rb.getLocale().getLanguage());
     private String javadocDirName;
 
     /** check an url (including local path) is exist or not */
-    private static boolean exists(String url) {
+    private static boolean exists(String url, Map<Path, FileSystem> archives) {
         URI uri;
         if (!url.startsWith("http:")) {
-            return Files.exists(Paths.get(url));
+            try {
+                return Files.exists(toPath(url, archives));
+            } catch (IOException e) {
+                logger.fine(e.toString());
+                return false;
+            }
         } else {
             try {
                 uri = URI.create(url);
@@ -1933,24 +1968,257 @@ logger.finer("lang: " + rb.getLocale().getLanguage());
         }
     }
 
+    /** a zip or a jar file and a path in it */
+    private static final Pattern archivePattern = Pattern.compile("^(.+?\\.(?:zip|jar))(?:[/\\\\](.*))?$", Pattern.CASE_INSENSITIVE);
+
     /**
+     * archives opened by this parser, entries are looked up by the central
+     * directory read at opening, so those are closed by {@link #close()}
+     * and opened again by the next parser to see an archive rewritten.
+     */
+    private Map<Path, FileSystem> archives = new ConcurrentHashMap<>();
+
+    /**
+     * @param file a local path, a path under a zip or a jar file is resolved in the archive,
+     *        e.g. "mirror.zip/java/lang/String.html"
+     * @param archives archives opened, output
+     */
+    private static Path toPath(String file, Map<Path, FileSystem> archives) throws IOException {
+        Matcher matcher = archivePattern.matcher(file);
+        if (matcher.matches() && Files.isRegularFile(Paths.get(matcher.group(1)))) {
+            Path archive = Paths.get(matcher.group(1)).toAbsolutePath().normalize();
+            FileSystem fs;
+            try {
+                fs = archives.computeIfAbsent(archive, a -> {
+                    try {
+                        return FileSystems.newFileSystem(a, (ClassLoader) null);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            String entry = matcher.group(2) != null ? matcher.group(2).replace('\\', '/') : "";
+            return fs.getPath("/" + entry);
+        } else {
+            return Paths.get(file);
+        }
+    }
+
+    /** closes archives opened, the parser cannot read pages in archives after this */
+    @Override
+    public void close() throws IOException {
+        close(archives);
+    }
+
+    /** closes all, the first failure is thrown */
+    private static void close(Map<Path, FileSystem> archives) throws IOException {
+        IOException failure = null;
+        for (FileSystem fs : archives.values()) {
+            try {
+                fs.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        archives.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** large enough for a few pages of a network file system at once */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** the html head is looked for a charset within this */
+    private static final int SNIFF_SIZE = 8 * 1024;
+
+    /** charset in a meta element, both of html4 and html5 */
+    private static final Pattern metaCharsetPattern = Pattern.compile("<meta[^>]+charset\\s*=\\s*[\"']?([\\w.:\\-]+)", Pattern.CASE_INSENSITIVE);
+
+    /** input encoding given by the user, null means the one declared by each page */
+    private String encoding;
+
+    /**
+     * Opens a page, local files are read by nio. all input is buffered.
+     *
+     * @param url a file path or a http url
+     * @param encoding null means the charset declared by the page's meta element, or the platform default
+     * @param archives archives opened, output
      * @throws IllegalArgumentException url is illegal syntax
      * @throws IOException cannot open the url
      */
-    private static InputSource getInputSource(String url) throws IOException {
-        URI uri = null;
+    private static InputSource getInputSource(String url, String encoding, Map<Path, FileSystem> archives) throws IOException {
+        InputStream is;
         if (!url.startsWith("http:")) {
-            uri = Paths.get(url).toUri();
+            is = Files.newInputStream(toPath(url, archives));
+        } else {
+            is = URI.create(url).toURL().openStream();
+        }
+        is = new BufferedInputStream(is, BUFFER_SIZE);
+        InputSource source = new InputSource(is);
+        source.setEncoding(encoding != null ? encoding : sniffEncoding(is));
+        return source;
+    }
+
+    /**
+     * Reads the charset declared in the html head, the stream is rewound.
+     *
+     * @param is supports mark
+     * @return the charset declared, or the platform default
+     */
+    private static String sniffEncoding(InputStream is) throws IOException {
+        is.mark(SNIFF_SIZE);
+        byte[] head = new byte[SNIFF_SIZE];
+        int length = 0;
+        int r;
+        while (length < head.length && (r = is.read(head, length, head.length - length)) != -1) {
+            length += r;
+        }
+        is.reset();
+
+        // meta elements are ascii in ascii compatible encodings
+        Matcher matcher = metaCharsetPattern.matcher(new String(head, 0, length, StandardCharsets.ISO_8859_1));
+        if (matcher.find()) {
+            String charset = matcher.group(1);
+            try {
+                if (Charset.isSupported(charset)) {
+                    return charset;
+                }
+            } catch (IllegalCharsetNameException e) {
+logger.fine("illegal charset: " + charset);
+            }
+        }
+        return Charset.defaultCharset().name();
+    }
+
+    /** compiled selectors of this version and language */
+    protected XPathRegistry registry;
+
+    /** section indexes of type pages being parsed, an entry lives while {@link #processType(Type)} runs */
+    private final Map<Document, PageIndex> indexes = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /** pages still growing, those are not indexed */
+    private final Set<Document> livePages = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
+    /** @param live true while a page is being built by {@link StreamingExtractor} */
+    void setLive(Document page, boolean live) {
+        if (live) {
+            livePages.add(page);
         } else {
-            uri = URI.create(url);
+            livePages.remove(page);
         }
-        InputSource is = new InputSource(uri.toURL().openStream());
-        String encoding = System.getProperty("codavaj.file.encoding", System.getProperty("file.encoding"));
-logger.finer("encoding: " + encoding);
-        is.setEncoding(encoding);
-        return is;
     }
 
+    /** @return the section index of the type page being parsed, a new one for other pages */
+    private PageIndex indexOf(Document page) {
+        PageIndex index = indexes.get(page);
+        return index != null ? index : new PageIndex(page, getLabelXpath());
+    }
+
+    /**
+     * @return where a "//" selector for the section is evaluated, the whole
+     *         page while it is growing or not sectioned, null when the page
+     *         does not have the section
+     */
+    private Branch scope(Document page, Section section) {
+        if (livePages.contains(page)) {
+            return page;
+        }
+        return indexOf(page).scope(section);
+    }
+
+    /**
+     * selects nodes of the whole page.
+     *
+     * @param page whole page
+     * @param xpath selector
+     * @param variables pairs of a variable name and its value
+     */
+    protected List<Node> selectNodes(Document page, String xpath, Object... variables) {
+        return registry.selectNodes(page, xpath, variables);
+    }
+
+    /**
+     * selects nodes in a section of the page.
+     *
+     * @param page whole page
+     * @param section the block to be scanned
+     * @param xpath selector starting with "//"
+     * @param variables pairs of a variable name and its value
+     * @see PageIndex
+     */
+    protected List<Node> selectNodes(Document page, Section section, String xpath, Object... variables) {
+        Branch scope = scope(page, section);
+        if (scope == null) {
+            return Collections.emptyList();
+        }
+        return registry.selectNodes(scope, PageIndex.scoped(xpath), variables);
+    }
+
+    /** @return the first node of the whole page, or null */
+    protected Node selectSingleNode(Document page, String xpath, Object... variables) {
+        return registry.selectSingleNode(page, xpath, variables);
+    }
+
+    /**
+     * @return the first node in the section, or null
+     * @see #selectNodes(Document, Section, String, Object...)
+     */
+    protected Node selectSingleNode(Document page, Section section, String xpath, Object... variables) {
+        Branch scope = scope(page, section);
+        if (scope == null) {
+            return null;
+        }
+        return registry.selectSingleNode(scope, PageIndex.scoped(xpath), variables);
+    }
+
+    /** @return the string value of the first node of the whole page */
+    protected String valueOf(Document page, String xpath, Object... variables) {
+        return registry.valueOf(page, xpath, variables);
+    }
+
+    /**
+     * @return the string value of the first node in the section
+     * @see #selectNodes(Document, Section, String, Object...)
+     */
+    protected String valueOf(Document page, Section section, String xpath, Object... variables) {
+        Branch scope = scope(page, section);
+        if (scope == null) {
+            return "";
+        }
+        return registry.valueOf(scope, PageIndex.scoped(xpath), variables);
+    }
+
+    /** whether to use the event driven extractor for versions supporting it */
+    private boolean streaming;
+
+    /**
+     * @param streaming whether to use the event driven extractor for versions supporting it,
+     *        pages not streamable fall back to the dom
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /** recording needs whole pages, so streaming is off while recording */
+    protected boolean isStreaming() {
+        return streaming && recorder == null;
+    }
+
+    /** whether this version has the event driven extractor */
+    protected boolean isStreamable() {
+        return false;
+    }
+
+    /** records pages and timings when not null */
+    private ParseRecorder recorder;
+
     /**
      * Creates suitable parser.
      *
@@ -1960,15 +2228,53 @@ logger.finer("encoding: " + encoding);
      * @throws IOException cannot load all classes file
      */
     public static ParserUtils factory(String dir) throws IOException {
+        return factory(dir, null);
+    }
+
+    /**
+     * Creates suitable parser which records its workload.
+     *
+     * @param dir the dir to parse.
+     * @param recorder records pages and timings, nullable
+     * @throws java.util.NoSuchElementException index file was not found.
+     * @throws IllegalStateException SAXException
+     * @throws IOException cannot load all classes file
+     */
+    public static ParserUtils factory(String dir, ParseRecorder recorder) throws IOException {
+        Map<Path, FileSystem> archives = new ConcurrentHashMap<>();
+        try {
+            ParserUtils parserUtil = factory(dir, recorder, archives);
+            parserUtil.archives = archives;
+            return parserUtil;
+        } catch (IOException | RuntimeException e) {
+            try {
+                close(archives);
+            } catch (IOException f) {
+                e.addSuppressed(f);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param archives archives opened, output
+     * @see #factory(String, ParseRecorder)
+     */
+    private static ParserUtils factory(String dir, ParseRecorder recorder, Map<Path, FileSystem> archives) throws IOException {
 
         try {
             Locale.setDefault(Locale.ENGLISH); // for token.properties
 
-            String allClassesFilename = getFirstIndexFilePath(dir);
-            Document document = loadHtmlMetadataAsDom(getInputSource(allClassesFilename));
+            // usually, use a jvmarg like "-Dcodavaj.file.encoding=MS932" for pages w/o charset
+            String encoding = System.getProperty("codavaj.file.encoding");
+logger.fine("encoding: " + encoding);
+
+            String allClassesFilename = getFirstIndexFilePath(dir, archives);
+            Document document = loadHtmlMetadataAsDom(getInputSource(allClassesFilename, encoding, archives));
             Node langNode = document.selectSingleNode("/HTML/@lang");
 
             ParserUtils parserUtil;
+            ResourceBundle rb;
 
             if (langNode != null) {
                 String lang = langNode.getText();
@@ -1994,15 +2300,26 @@ logger.info("lang =6: " + rb.getLocale().getLanguage());
 
                 parserUtil = new ParserUtils();
             }
+            parserUtil.rb = rb;
+            parserUtil.encoding = encoding;
+            parserUtil.registry = XPathRegistry.of(parserUtil.getClass(), rb.getLocale());
+            parserUtil.javadocDirName = dir;
 
-            Document allClasses = parserUtil.loadHtmlAsDom(getInputSource(allClassesFilename));
+            String allClassesName = allClassesFilename.substring(dir.length() + fileSeparator(dir).length());
+            long start = System.nanoTime();
+            Document allClasses = parserUtil.loadHtmlAsDom(getInputSource(allClassesFilename, encoding, archives));
+            if (recorder != null) {
+                recorder.recordTiming(allClassesName, "load", System.nanoTime() - start);
+                recorder.setTokens(rb);
+                recorder.recordIndexPage(allClassesName, allClasses, document);
+                parserUtil.recorder = recorder;
+            }
 //String x = Paths.get(allClassesFilename).getFileName().toString();
 //BufferedWriter w = Files.newBufferedWriter(Paths.get("tmp/1.9.16", "/input-" + x));
 //w.write(prettyPrint(allClasses));
 //w.flush();
             parserUtil.classes = parserUtil.getAllFqTypenames(allClasses);
 
-            parserUtil.javadocDirName = dir;
 logger.fine("parser: " + parserUtil.getClass().getName());
             return parserUtil;
         } catch (SAXException e) {
@@ -2020,8 +2337,10 @@ logger.fine("parser: " + parserUtil.getClass().getName());
     public void processType(Type type) throws IOException {
         Document typeXml = null;
         try {
-            String filename = javadocDirName + fileSeparator(javadocDirName) + filenameFromTypename(type.getTypeName());
-            typeXml = loadHtmlAsDom(getInputSource(filename));
+            String page = filenameFromTypename(type.getTypeName());
+            typeXml = loadPage(page);
+            long start = System.nanoTime();
+            indexes.put(typeXml, new PageIndex(typeXml, getLabelXpath()));
 
             if (isAnnotation(typeXml)) {
                 type.setAnnotation(true);
@@ -2038,29 +2357,43 @@ logger.fine("parser: " + parserUtil.getClass().getName());
             }
 
             determineImplementsList(type, typeXml);
+            start = lap(page, "implementsList", start);
 
             determineTypeModifiers(type, typeXml);
+            start = lap(page, "typeModifiers", start);
 
             determineElements(type, typeXml);
+            start = lap(page, "elements", start);
 
             determineMethods(type, typeXml);
+            start = lap(page, "methods", start);
 
             determineFields(type, typeXml);
+            start = lap(page, "fields", start);
 
             determineEnumConsts(type, typeXml);
+            start = lap(page, "enumConsts", start);
 
             determineConstructors(type, typeXml);
+            start = lap(page, "constructors", start);
 
             determineInnerTypes(type, typeXml);
+            start = lap(page, "innerTypes", start);
 
             determineDetails(type, typeXml);
+            start = lap(page, "details", start);
 
             determineClassComment(type, typeXml);
+            start = lap(page, "classComment", start);
         } catch (SAXException e) {
             throw new IllegalStateException(e);
         } catch (Exception e) {
 e.printStackTrace();
             throw new ParseException(typeXml.asXML(), e);
+        } finally {
+            if (typeXml != null) {
+                indexes.remove(typeXml);
+            }
         }
     }
 
@@ -2073,40 +2406,102 @@ e.printStackTrace();
      */
     public void processConstant(Map<String, Type> maps, boolean lenient) throws IOException {
         try {
-            String allConstantsFilename = javadocDirName + fileSeparator(javadocDirName) + "constant-values.html";
-            Document allConstants = loadHtmlAsDom(getInputSource(allConstantsFilename));
+            String page = "constant-values.html";
+            Document allConstants = loadPage(page);
+            long start = System.nanoTime();
 
             determineConstants(allConstants, maps, lenient);
+            lap(page, "constants", start);
         } catch (SAXException e) {
             throw new IllegalStateException(e);
         }
     }
 
     /**
-     * load javadoc metadata
-     *
-     * @param html javadoc
+     * opens the page of a type without parsing.
+     */
+    InputSource openTypePage(Type type) throws IOException {
+        return openTypePage(type.getTypeName());
+    }
+
+    /**
+     * opens the page of a type without parsing.
      *
-     * @return includes only html tag and comments.
+     * @param typeName fully qualified type name
+     */
+    InputSource openTypePage(String typeName) throws IOException {
+        return getInputSource(javadocDirName + fileSeparator(javadocDirName) + filenameFromTypename(typeName), encoding, archives);
+    }
+
+    /** input encoding given by the user, null means the one declared by each page */
+    String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * determines what {@link #processType(Type)} determines from the class header,
+     * for pages given part by part.
      *
-     * @throws SAXException DOCUMENT ME!
-     * @throws IOException DOCUMENT ME!
+     * @return false when the page is an annotation type or not a type page, nothing is modified in that case
      */
-    private static Document loadHtmlMetadataAsDom(InputSource html) throws SAXException, IOException {
-        org.cyberneko.html.parsers.DOMParser parser = new org.cyberneko.html.parsers.DOMParser();
+    boolean determineHeader(Type type, Document typeXml) {
+        if (isAnnotation(typeXml)) {
+            return false;
+        } else if (isInterface(typeXml)) {
+            type.setInterface(true);
+        } else if (isEnum(typeXml)) {
+            type.setEnum(true);
+            extendedType(type, typeXml);
+        } else if (isClass(typeXml)) {
+            extendedType(type, typeXml);
+        } else {
+            return false;
+        }
 
-        //XMLParserConfiguration parser = new HTMLConfiguration();
-        parser.setFeature("http://cyberneko.org/html/features/augmentations", true);
-        parser.setFeature("http://cyberneko.org/html/features/report-errors", false);
-        parser.setProperty("http://cyberneko.org/html/properties/names/elems", "lower");
-        parser.setProperty("http://cyberneko.org/html/properties/names/attrs", "lower");
+        determineImplementsList(type, typeXml);
 
-        parser.setFeature("http://apache.org/xml/features/scanner/notify-char-refs", true);
-        parser.setFeature("http://cyberneko.org/html/features/scanner/notify-builtin-refs", true);
+        determineTypeModifiers(type, typeXml);
 
-        parser.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+        determineClassComment(type, typeXml);
 
-        org.cyberneko.html.filters.ElementRemover remover = new org.cyberneko.html.filters.ElementRemover();
+        return true;
+    }
+
+    /**
+     * loads a page under the javadoc dir, the page and loading time are recorded if a recorder is set.
+     *
+     * @param page relative path from the javadoc dir
+     */
+    private Document loadPage(String page) throws SAXException, IOException {
+        String filename = javadocDirName + fileSeparator(javadocDirName) + page;
+        long start = System.nanoTime();
+        Document document = loadHtmlAsDom(getInputSource(filename, encoding, archives));
+        if (recorder != null) {
+            recorder.recordTiming(page, "load", System.nanoTime() - start);
+            recorder.recordPage(page, document);
+        }
+        return document;
+    }
+
+    /**
+     * records time of a stage if a recorder is set.
+     *
+     * @param page relative path from the javadoc dir
+     * @param stage name of the stage
+     * @param start {@link System#nanoTime()} when the stage started
+     * @return {@link System#nanoTime()} as the start of the next stage
+     */
+    private long lap(String page, String stage, long start) {
+        long now = System.nanoTime();
+        if (recorder != null) {
+            recorder.recordTiming(page, stage, now - start);
+        }
+        return now;
+    }
+
+    /** parsers for metadata, one per thread */
+    private static final HtmlParserHolder metadataParserHolder = new HtmlParserHolder(() -> {
+        ElementRemover remover = new ElementRemover();
 
         // set which elements to accept
         remover.acceptElement("html", new String[] { "lang" });
@@ -2115,59 +2510,45 @@ e.printStackTrace();
         remover.removeElement("script");
         remover.removeElement("link");
 
-        org.apache.xerces.xni.parser.XMLDocumentFilter[] filters = new org.apache.xerces.xni.parser.XMLDocumentFilter[] {
-            new org.cyberneko.html.filters.Purifier(),
-            remover,
-        };
-        parser.setProperty("http://cyberneko.org/html/properties/filters", filters);
-        parser.parse(html);
+        return remover;
+    });
 
-        DOMReader xmlReader = new DOMReader();
-        Document result = xmlReader.read(parser.getDocument());
+    /**
+     * load javadoc metadata
+     *
+     * @param html javadoc
+     *
+     * @return includes only html tag and comments.
+     *
+     * @throws SAXException DOCUMENT ME!
+     * @throws IOException DOCUMENT ME!
+     */
+    private static Document loadHtmlMetadataAsDom(InputSource html) throws SAXException, IOException {
+        Document result = metadataParserHolder.parse(html);
 
 //        logger.info("XML " + prettyPrint(result));
         return result;
     }
 
+    /** parsers configured with {@link #getRemover()}, one per thread */
+    private final HtmlParserHolder parserHolder = new HtmlParserHolder(this::getRemover);
+
     /**
      * DOCUMENT ME!
      *
      * @return dom
      */
     private Document loadHtmlAsDom(InputSource html) throws SAXException, IOException {
-        org.cyberneko.html.parsers.DOMParser parser = new org.cyberneko.html.parsers.DOMParser();
-
-        //XMLParserConfiguration parser = new HTMLConfiguration();
-        parser.setFeature("http://cyberneko.org/html/features/augmentations", true);
-        parser.setFeature("http://cyberneko.org/html/features/report-errors", false);
-        parser.setProperty("http://cyberneko.org/html/properties/names/elems", "lower");
-        parser.setProperty("http://cyberneko.org/html/properties/names/attrs", "lower");
-
-        parser.setFeature("http://apache.org/xml/features/scanner/notify-char-refs", true);
-        parser.setFeature("http://cyberneko.org/html/features/scanner/notify-builtin-refs", true);
-
-        parser.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        org.apache.xerces.xni.parser.XMLDocumentFilter[] filters = new org.apache.xerces.xni.parser.XMLDocumentFilter[] {
-            new org.cyberneko.html.filters.Purifier(),
-            getRemover(),
-            new org.cyberneko.html.filters.Writer(baos, "UTF-8")
-        };
-        parser.setProperty("http://cyberneko.org/html/properties/filters", filters);
-        parser.parse(html);
-
-        //String html = new String(baos.toByteArray(), "UTF-8");
-        //logger.info(html);
-        DOMReader xmlReader = new DOMReader();
-        Document result = xmlReader.read(parser.getDocument());
+        Document result = parserHolder.parse(html);
 
         //logger.info("XML " + prettyPrint(result));
         return result;
     }
 
-    /** lists elements to be removed */
+    /**
+     * lists elements to be removed.
+     * called once per parsing thread, the remover is reused for every page the thread parses.
+     */
     protected ElementRemover getRemover() {
         ElementRemover remover = new ElementRemover();
 
@@ -86,6 +86,12 @@ public class ParserUtils11 extends ParserUtils8 {
         return getAllFqTypenames(alltypesXml, "//TABLE/TR/TD/A/@href");
     }
 
+    /* sections are well delimited since 11 */
+    @Override
+    protected boolean isStreamable() {
+        return true;
+    }
+
     @Override
     public boolean isSuitableVersion(String version) {
         return versionComparator.compare(version, "11.0.0") >= 0 && versionComparator.compare(version, "12.0.0") < 0;
@@ -6,6 +6,7 @@
 
 package org.codavaj.process.docparser;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -13,11 +14,13 @@ import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.codavaj.process.docparser.PageIndex.Section;
 import org.codavaj.type.Type;
 import org.cyberneko.html.filters.ElementRemover;
 import org.dom4j.Document;
 import org.dom4j.Element;
 import org.dom4j.Node;
+import org.xml.sax.SAXException;
 
 import static com.rainerhahnekamp.sneakythrow.Sneaky.sneaked;
 
@@ -53,7 +56,7 @@ public class ParserUtils8 extends ParserUtils {
 logger.fine("ignore 1: " + text);
                     }
                 } else if ("DL".equals(node.getName())) {
-                    List<Node> nodes = node.selectNodes("*[name()='DT' or name()='DD']");
+                    List<Node> nodes = registry.selectNodes(node, "*[name()='DT' or name()='DD']");
                     int j = 0;
                     do {
                         Node dt = nodes.get(j++);
@@ -84,7 +87,7 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
         }
 
         // LI/DIV, DL...
-        List<Node> allNodes = enclosingNode.selectNodes("*[name()='DIV' or name()='DL']");
+        List<Node> allNodes = registry.selectNodes(enclosingNode, "*[name()='DIV' or name()='DL']");
         List<String> commentText = new ArrayList<>();
 
         determineComment(t, allNodes, commentText);
@@ -102,7 +105,7 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
         if (enclosingNode == null) {
             return null;
         }
-        Node node = enclosingNode.selectSingleNode("DL/DT[contains(text(), '" + rb.getString("token.default") + "')]/../DD");
+        Node node = registry.selectSingleNode(enclosingNode, "DL/DT[contains(text(), '" + rb.getString("token.default") + "')]/../DD");
         return node != null ? node.getText() : null;
     }
 
@@ -112,11 +115,12 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
         List<String> commentText = new ArrayList<>();
 
         // for others
-        List<Node> allNodes = typeXml.selectNodes("//LI/text()[contains(.,'" + type.getLabelString() + " " + type.getShortName() + "')]/following-sibling::*[name()='DIV' or name()='DL']");
+        List<Node> allNodes = selectNodes(typeXml, Section.DESCRIPTION, "//LI/text()[contains(., concat($label, ' ', $shortName))]/following-sibling::*[name()='DIV' or name()='DL']",
+                "label", type.getLabelString(), "shortName", type.getShortName());
         determineComment(type, allNodes, commentText);
 
         // for type parameter
-        allNodes = typeXml.selectNodes("/HTML/DIV/DIV/LI/DL/DT[contains(text(),'" + rb.getString("token.type_parameter") + "')]/..");
+        allNodes = selectNodes(typeXml, "/HTML/DIV/DIV/LI/DL/DT[contains(text(),'" + rb.getString("token.type_parameter") + "')]/..");
         determineComment(type, allNodes, commentText);
 
         type.setComment(commentText);
@@ -149,7 +153,7 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
             return c.parseDone;
         };
 
-        List<Node> constructorDetails = typeXml.selectNodes("//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.constructor_details") + "')]/following-sibling::LI");
+        List<Node> constructorDetails = selectNodes(typeXml, Section.DETAILS, "//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.constructor_details") + "')]/following-sibling::LI");
         for (int i = 0; constructorDetails != null && i < constructorDetails.size(); i++) {
             Node node = constructorDetails.get(i);
 
@@ -161,7 +165,7 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
             }));
         }
 
-        List<?> methodDetails = typeXml.selectNodes("//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.method_details") + "')]/following-sibling::LI");
+        List<?> methodDetails = selectNodes(typeXml, Section.DETAILS, "//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.method_details") + "')]/following-sibling::LI");
         for (int i = 0; methodDetails != null && i < methodDetails.size(); i++) {
             Node node = (Node) methodDetails.get(i);
 
@@ -173,7 +177,7 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
             }));
         }
 
-        List<?> fieldDetails = typeXml.selectNodes("//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.field_details") + "')]/following-sibling::LI");
+        List<?> fieldDetails = selectNodes(typeXml, Section.DETAILS, "//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.field_details") + "')]/following-sibling::LI");
         for (int i = 0; fieldDetails != null && i < fieldDetails.size(); i++) {
             Node node = (Node) fieldDetails.get(i);
 
@@ -186,19 +190,19 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
         }
 
         // annotation
-        List<Node> elementDetails = typeXml.selectNodes("//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.element_details") + "')]/../../LI");
+        List<Node> elementDetails = selectNodes(typeXml, Section.DETAILS, "//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.element_details") + "')]/../../LI");
         for (int i = 0; elementDetails != null && i < elementDetails.size(); i++) {
             Node node = elementDetails.get(i);
-            List<Node> allNodes = ((Element) node.selectSingleNode("LI")).content();
+            List<Node> allNodes = ((Element) registry.selectSingleNode(node, "LI")).content();
             determineDetails(allNodes, f, sneaked(c -> {
                 String name = getDetailsName(c.text);
-                determineFieldDetails(type, c.text, name, (Element) node.selectSingleNode("LI"));
+                determineFieldDetails(type, c.text, name, (Element) registry.selectSingleNode(node, "LI"));
                 c.parseDone = true;
             }));
         }
 
         // enum
-        List<Node> enumCOnstantDetails = typeXml.selectNodes("//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.enum_constant_details") + "')]/following-sibling::LI");
+        List<Node> enumCOnstantDetails = selectNodes(typeXml, Section.DETAILS, "//" + getDetailsXpath() + "[contains(text(),'" + rb.getString("token.enum_constant_details") + "')]/following-sibling::LI");
         for (int i = 0; enumCOnstantDetails != null && i < enumCOnstantDetails.size(); i++) {
             Node node = enumCOnstantDetails.get(i);
 
@@ -257,9 +261,9 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
     @Override
     protected void extendedType(Type t, Document typeXml) {
         final String keyword = "extends";
-        Node aNode = typeXml.selectSingleNode("//LI/text()[contains(.,'" + keyword + "')]/following-sibling::A[1]");
+        Node aNode = selectSingleNode(typeXml, Section.DESCRIPTION, "//LI/text()[contains(., $keyword)]/following-sibling::A[1]", "keyword", keyword);
         if (aNode != null) {
-            Node liNode = typeXml.selectSingleNode("//LI[text()[contains(.,'" + keyword + "')]]");
+            Node liNode = selectSingleNode(typeXml, Section.DESCRIPTION, "//LI[text()[contains(., $keyword)]]", "keyword", keyword);
             // selectNodes doesn't contain text...
             List<Node> l = ((Element) liNode).content();
             List<Node> nodes = l.stream()
@@ -282,7 +286,7 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
                 t.setSuperType(typeName);
             }
         } else {
-            String nodeText = typeXml.selectSingleNode("//LI/text()[contains(.,'" + keyword + "')]").getText().trim();
+            String nodeText = selectSingleNode(typeXml, Section.DESCRIPTION, "//LI/text()[contains(., $keyword)]", "keyword", keyword).getText().trim();
             nodeText = nodeText.replaceFirst(".+\\s" + keyword + "\\s+([\\w_\\$\\.\\<\\>]+)\\s*.*", "$1");
             t.setSuperType(nodeText);
         }
@@ -292,13 +296,15 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
     @Override
     protected void determineTypeModifiers(Type type, Document typeXml) {
 //System.err.println("type: " + type.getShortName() + ", " + type.getTypeString());
-        String typeDescriptorXpath = "//" + getLabelXpath() + "[contains(text(),'" + getLabelString(type) + "') and contains(text(),'" + type.getShortName() + "')]";
-        Node typeDescriptorNode = typeXml.selectSingleNode(typeDescriptorXpath);
+        String typeDescriptorXpath = "//" + getLabelXpath() + "[contains(text(), $label) and contains(text(), $shortName)]";
+        Node typeDescriptorNode = selectSingleNode(typeXml, Section.HEADER, typeDescriptorXpath,
+                "label", getLabelString(type), "shortName", type.getShortName());
 //System.err.println(typeDescriptorNode.asXML());
         String typeDescriptor1 = convertNodesToString(typeDescriptorNode);
         typeDescriptor1 = typeDescriptor1.replace(getLabelString(type) + " ", "").trim();
 //System.err.println(typeDescriptor1);
-        String typeDescriptor2 = typeXml.selectSingleNode("//LI/text()[contains(.,'" + type.getLabelString() + "') and contains(.,'" + type.getShortName() + "')]").getText();
+        String typeDescriptor2 = selectSingleNode(typeXml, Section.DESCRIPTION, "//LI/text()[contains(., $label) and contains(., $shortName)]",
+                "label", type.getLabelString(), "shortName", type.getShortName()).getText();
         String typeDescriptor = typeDescriptor2.replace(type.getShortName(), typeDescriptor1);
 //System.err.println(typeDescriptor);
 
@@ -310,7 +316,7 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
     public void determineImplementsList(Type t, Document typeXml) {
         String extension = t.isInterface() ? "extends" : "implements";
 
-        List<?> implementsTypeAs = typeXml.selectNodes("//LI/text()[contains(.,'" + extension + "')]/following-sibling::A");
+        List<?> implementsTypeAs = selectNodes(typeXml, Section.DESCRIPTION, "//LI/text()[contains(., $extension)]/following-sibling::A", "extension", extension);
         if (implementsTypeAs != null && implementsTypeAs.size() > 0) {
             for (Object implementsTypeA : implementsTypeAs) {
                 Node node = (Node) implementsTypeA;
@@ -331,7 +337,7 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
                 }
             }
         } else {
-            Node node = typeXml.selectSingleNode("//LI/text()[contains(.,'" + extension + "')]");
+            Node node = selectSingleNode(typeXml, Section.DESCRIPTION, "//LI/text()[contains(., $extension)]", "extension", extension);
             if (node != null) {
                 String text = node.getText().trim();
                 text = text.substring(text.indexOf(extension) + extension.length() + 1);
@@ -343,6 +349,26 @@ logger.log(Level.WARNING, "ignore 5: " + node.asXML());
         }
     }
 
+    /** used when streaming is on and this version is streamable */
+    private final StreamingExtractor streamingExtractor = new StreamingExtractor(this);
+
+    /* extracts by events if possible */
+    @Override
+    public void processType(Type type) throws IOException {
+        if (isStreaming() && isStreamable()) {
+            try {
+                if (streamingExtractor.extract(type, openTypePage(type))) {
+                    return;
+                }
+logger.fine("not streamable: " + type.getTypeName());
+            } catch (SAXException | RuntimeException e) {
+logger.log(Level.FINE, "streaming failed, use dom: " + type.getTypeName(), e);
+                type.clear();
+            }
+        }
+        super.processType(type);
+    }
+
     /* add li, dd, div */
     @Override
     protected ElementRemover getRemover() {
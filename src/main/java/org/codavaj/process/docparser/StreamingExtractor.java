@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.docparser;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.codavaj.type.Type;
+import org.cyberneko.html.parsers.SAXParser;
+import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.ElementPath;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+
+/**
+ * Extracts a type page while it is being parsed.
+ * <p>
+ * the page is never built as a whole. each row of a summary table and each
+ * item of a details section is handed to the usual determine* methods as
+ * soon as it is closed, then it is detached from the tree. what stays is
+ * a skeleton, the navigation, the class header and the description, and
+ * section headers, so the memory of a page in flight is bounded by those
+ * and one row or one item, not by the number of members.
+ * </p>
+ * <p>
+ * the determine* methods see the skeleton and the current row only, so the
+ * selectors of each parser version work as they are. the header is processed
+ * when the first member arrives, it is complete by then.
+ * </p>
+ * <p>
+ * this works only for pages which have well delimited sections, annotation
+ * types and pages without a class header are left to the dom path.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class StreamingExtractor {
+
+    /** summary tables */
+    private enum Summary {
+        METHODS(Type::getMethodList) {
+            @Override void determine(ParserUtils parserUtil, Type type, Document page) {
+                parserUtil.determineMethods(type, page);
+            }
+        },
+        FIELDS(Type::getFieldList) {
+            @Override void determine(ParserUtils parserUtil, Type type, Document page) {
+                parserUtil.determineFields(type, page);
+            }
+        },
+        ENUM_CONSTS(Type::getEnumConstList) {
+            @Override void determine(ParserUtils parserUtil, Type type, Document page) {
+                parserUtil.determineEnumConsts(type, page);
+            }
+        },
+        CONSTRUCTORS(Type::getConstructorList) {
+            @Override void determine(ParserUtils parserUtil, Type type, Document page) {
+                parserUtil.determineConstructors(type, page);
+            }
+        },
+        INNER_TYPES(Type::getInnerTypeList) {
+            @Override void determine(ParserUtils parserUtil, Type type, Document page) throws IOException {
+                parserUtil.determineInnerTypes(type, page);
+            }
+        };
+
+        /** members this summary creates */
+        final Function<Type, List<?>> members;
+
+        Summary(Function<Type, List<?>> members) {
+            this.members = members;
+        }
+
+        /** processes rows in the page */
+        abstract void determine(ParserUtils parserUtil, Type type, Document page) throws IOException;
+    }
+
+    /** */
+    private final ParserUtils8 parserUtil;
+
+    /** handlers not in use, a nested type is extracted during its enclosing type */
+    private final ThreadLocal<Deque<StreamingHandler>> idleHandlers = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /** */
+    StreamingExtractor(ParserUtils8 parserUtil) {
+        this.parserUtil = parserUtil;
+    }
+
+    /**
+     * @param type model to set up
+     * @param html the type page
+     * @return false when the page is not streamable, the type is not modified in that case
+     * @throws SAXException the page is broken or a determine* method failed,
+     *         the type may be modified half way
+     */
+    boolean extract(Type type, InputSource html) throws SAXException, IOException {
+        Deque<StreamingHandler> handlers = idleHandlers.get();
+        StreamingHandler handler = handlers.isEmpty() ? new StreamingHandler() : handlers.pop();
+        try {
+            handler.type = type;
+            handler.parser = HtmlParserHolder.reuse(handler.parser, () -> HtmlParserHolder.createParser(parserUtil.getRemover(), handler));
+            handler.parser.parse(html);
+            handler.ensureHeader();
+            return true;
+        } catch (SAXException e) {
+            if (handler.mismatch) {
+                return false;
+            }
+            throw e;
+        } finally {
+            handler.clear();
+            handlers.push(handler);
+        }
+    }
+
+    /** builds the skeleton and feeds members */
+    private class StreamingHandler extends HtmlParserHolder.HtmlContentHandler {
+
+        /** a parser of its own, it is reset at the start of each document */
+        SAXParser parser = HtmlParserHolder.createParser(parserUtil.getRemover(), this);
+
+        /** being extracted */
+        Type type;
+
+        /** the header was processed */
+        boolean headerDone;
+
+        /** the page is not streamable */
+        boolean mismatch;
+
+        /** tables whose header row has arrived, and summaries those rows belong to */
+        final Map<Element, Set<Summary>> tables = new IdentityHashMap<>();
+
+        /** parents of details section headers, items are their LI children */
+        final Set<Element> detailsParents = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /** */
+        void clear() {
+            if (getDocument() != null) {
+                parserUtil.setLive(getDocument(), false);
+            }
+            type = null;
+            headerDone = false;
+            mismatch = false;
+            tables.clear();
+            detailsParents.clear();
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            super.startDocument();
+            parserUtil.setLive(getDocument(), true);
+        }
+
+        @Override
+        public void endElement(String namespaceURI, String localName, String qName) throws SAXException {
+            Element element = ((ElementPath) getElementStack()).getCurrent();
+            super.endElement(namespaceURI, localName, qName);
+            if (element == null || element.getParent() == null) {
+                return;
+            }
+            try {
+                closed(element, element.getParent());
+            } catch (SAXException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new SAXException(e);
+            }
+        }
+
+        /** dispatches a closed element */
+        private void closed(Element element, Element parent) throws SAXException, IOException {
+            String name = element.getName();
+            if ("TR".equals(name) && "TABLE".equals(parent.getName())) {
+                if (!tables.containsKey(parent)) {
+                    // the header row, kept for "TR[position()>1]"
+                    tables.put(parent, null);
+                    return;
+                }
+                ensureHeader();
+                summaryRow(parent);
+                element.detach();
+            } else if (name.equals(parserUtil.getDetailsXpath()) && isDetailsHeader(element)) {
+                detailsParents.add(parent);
+            } else if ("LI".equals(name) && detailsParents.contains(parent)) {
+                ensureHeader();
+                parserUtil.determineDetails(type, getDocument());
+                element.detach();
+            }
+        }
+
+        /** a row is the only one in the skeleton, the first row tells which summaries take the table */
+        private void summaryRow(Element table) throws IOException {
+            Set<Summary> summaries = tables.get(table);
+            if (summaries == null) {
+                summaries = EnumSet.noneOf(Summary.class);
+                for (Summary summary : Summary.values()) {
+                    int size = summary.members.apply(type).size();
+                    summary.determine(parserUtil, type, getDocument());
+                    if (summary.members.apply(type).size() > size) {
+                        summaries.add(summary);
+                    }
+                }
+                tables.put(table, summaries);
+            } else {
+                for (Summary summary : summaries) {
+                    summary.determine(parserUtil, type, getDocument());
+                }
+            }
+        }
+
+        /** */
+        private boolean isDetailsHeader(Element element) {
+            String text = element.getText();
+            return text.contains(parserUtil.rb.getString("token.constructor_details")) ||
+                    text.contains(parserUtil.rb.getString("token.method_details")) ||
+                    text.contains(parserUtil.rb.getString("token.field_details")) ||
+                    text.contains(parserUtil.rb.getString("token.enum_constant_details"));
+        }
+
+        /**
+         * processes the header once.
+         * @throws SAXException the page is not streamable, nothing is modified
+         */
+        void ensureHeader() throws SAXException {
+            if (!headerDone) {
+                headerDone = true;
+                if (!parserUtil.determineHeader(type, getDocument())) {
+                    mismatch = true;
+                    throw new SAXException("not a streamable page: " + type.getTypeName());
+                }
+            }
+        }
+    }
+}
+
+/* */
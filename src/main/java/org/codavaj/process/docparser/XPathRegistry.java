@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.docparser;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dom4j.DocumentHelper;
+import org.dom4j.Node;
+import org.dom4j.XPath;
+import org.jaxen.UnresolvableException;
+import org.jaxen.VariableContext;
+
+
+/**
+ * Compiled xpath selectors of a parser version and a language.
+ * <p>
+ * {@link Node#selectNodes(String)} etc. compile the expression on every call,
+ * this compiles each expression only once and shares it among all pages and
+ * all parsing threads. expressions must not contain per type strings, use
+ * variables like {@code $shortName} for them, values are bound per call
+ * in the calling thread.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class XPathRegistry {
+
+    /** key is parser class name and locale */
+    private static final Map<String, XPathRegistry> registries = new ConcurrentHashMap<>();
+
+    /** variables bound by the current thread */
+    private static final ThreadLocal<Map<String, Object>> variables = ThreadLocal.withInitial(HashMap::new);
+
+    /** resolves variables from the current thread */
+    private static final VariableContext variableContext = (namespaceURI, prefix, localName) -> {
+        Map<String, Object> bound = variables.get();
+        if (!bound.containsKey(localName)) {
+            throw new UnresolvableException("variable $" + localName + " is not bound");
+        }
+        return bound.get(localName);
+    };
+
+    /** expression, compiled one */
+    private final Map<String, XPath> xpaths = new ConcurrentHashMap<>();
+
+    /** use {@link #of(Class, Locale)} */
+    private XPathRegistry() {
+    }
+
+    /**
+     * @param parser parser version
+     * @param locale language of javadoc tokens
+     * @return registry shared by parsers of the same version and the same language
+     */
+    static XPathRegistry of(Class<?> parser, Locale locale) {
+        return registries.computeIfAbsent(parser.getName() + "/" + locale, k -> new XPathRegistry());
+    }
+
+    /** compiles once */
+    XPath get(String expression) {
+        return xpaths.computeIfAbsent(expression, e -> {
+            XPath xpath = DocumentHelper.createXPath(e);
+            // a fixed namespace context, otherwise dom4j sets one from each context node
+            xpath.setNamespaceURIs(Collections.emptyMap());
+            xpath.setVariableContext(variableContext);
+            return xpath;
+        });
+    }
+
+    /**
+     * @param context a node the expression is evaluated from
+     * @param expression xpath
+     * @param variables pairs of a variable name and its value
+     */
+    List<Node> selectNodes(Node context, String expression, Object... variables) {
+        XPath xpath = get(expression);
+        bind(variables);
+        try {
+            return xpath.selectNodes(context);
+        } finally {
+            unbind();
+        }
+    }
+
+    /**
+     * @param context a node the expression is evaluated from
+     * @param expression xpath
+     * @param variables pairs of a variable name and its value
+     */
+    Node selectSingleNode(Node context, String expression, Object... variables) {
+        XPath xpath = get(expression);
+        bind(variables);
+        try {
+            return xpath.selectSingleNode(context);
+        } finally {
+            unbind();
+        }
+    }
+
+    /**
+     * @param context a node the expression is evaluated from
+     * @param expression xpath
+     * @param variables pairs of a variable name and its value
+     */
+    String valueOf(Node context, String expression, Object... variables) {
+        XPath xpath = get(expression);
+        bind(variables);
+        try {
+            return xpath.valueOf(context);
+        } finally {
+            unbind();
+        }
+    }
+
+    /** */
+    private static void bind(Object... pairs) {
+        Map<String, Object> bound = variables.get();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            bound.put((String) pairs[i], pairs[i + 1]);
+        }
+    }
+
+    /** */
+    private static void unbind() {
+        variables.get().clear();
+    }
+}
+
+/* */
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+
+/**
+ * Pages {@link Wget} follows.
+ * <p>
+ * a link is followed when its page kind is selected, no exclude pattern
+ * matches, some include pattern matches if any is given, and it is not
+ * deeper than the max depth. patterns are found in relative paths.
+ * include patterns select package directories, pages at the top, e.g. indexes,
+ * are not subject to them. the top page where a crawl starts is fetched anyway,
+ * other pages a crawl starts at are fetched when their kinds are selected.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class CrawlScope {
+
+    /** kinds of javadoc pages */
+    public enum PageKind {
+        /** a class, interface, enum or annotation */
+        TYPE,
+        /** package and module summaries and lists */
+        PACKAGE,
+        /** allclasses-*.html */
+        CLASS_INDEX,
+        /** index-all.html and index-files/ */
+        INDEX,
+        /** constant-values.html */
+        CONSTANTS,
+        /** class-use/ and package-use.html */
+        USE,
+        /** *-tree.html */
+        TREE,
+        /** src-html/ */
+        SOURCE,
+        /** style sheets, scripts, images and so on */
+        RESOURCE,
+        /** help, deprecated list, serialized form, doc-files and so on */
+        OTHER;
+
+        /**
+         * @param relativePath normalized by {@link LinkUtils#normalizeRelativeUrl(String)}
+         */
+        public static PageKind of(String relativePath) {
+            String path = relativePath.replaceFirst("[?#].*$", "");
+            String name = path.substring(path.lastIndexOf('/') + 1);
+
+            if (!name.endsWith(".html")) {
+                return RESOURCE;
+            } else if (path.startsWith("src-html/") || path.contains("/src-html/")) {
+                return SOURCE;
+            } else if (path.contains("class-use/") || name.equals("package-use.html")) {
+                return USE;
+            } else if (path.startsWith("index-files/") || name.equals("index-all.html")) {
+                return INDEX;
+            } else if (name.startsWith("allclasses")) {
+                return CLASS_INDEX;
+            } else if (name.endsWith("-tree.html")) {
+                return TREE;
+            } else if (name.equals("constant-values.html")) {
+                return CONSTANTS;
+            } else if (name.startsWith("package-") || name.startsWith("module-") || name.startsWith("overview-") ||
+                    name.equals("allpackages-index.html")) {
+                return PACKAGE;
+            } else if (path.contains("doc-files/") || name.indexOf('-') >= 0) {
+                return OTHER;
+            } else if (path.indexOf('/') < 0 && !Character.isUpperCase(name.charAt(0))) {
+                // index.html, search.html and so on, types of the default package are capitalized mostly
+                return OTHER;
+            } else {
+                return TYPE;
+            }
+        }
+    }
+
+    /** */
+    private final List<Pattern> includes = new ArrayList<>();
+
+    /** */
+    private final List<Pattern> excludes = new ArrayList<>();
+
+    /** */
+    private Set<PageKind> kinds = EnumSet.allOf(PageKind.class);
+
+    /** links from a start page are depth 1 */
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * a preset which follows pages read by {@link org.codavaj.process.docparser.DocParser} and
+     * pages leading to them only. types are reached from class indices, so
+     * index-all.html and index-files/ are not followed.
+     */
+    public static CrawlScope parseNeeded() {
+        CrawlScope scope = new CrawlScope();
+        scope.setKinds(EnumSet.of(PageKind.TYPE, PageKind.PACKAGE, PageKind.CLASS_INDEX, PageKind.CONSTANTS));
+        return scope;
+    }
+
+    /**
+     * @return a scope by system properties "codavaj.wget.scope", "codavaj.wget.include",
+     *         "codavaj.wget.exclude" and "codavaj.wget.max.depth"
+     */
+    static CrawlScope fromSystemProperties() {
+        CrawlScope scope = "parse-needed".equals(System.getProperty("codavaj.wget.scope")) ? parseNeeded() : new CrawlScope();
+        if (System.getProperty("codavaj.wget.include") != null) {
+            scope.addInclude(System.getProperty("codavaj.wget.include"));
+        }
+        if (System.getProperty("codavaj.wget.exclude") != null) {
+            scope.addExclude(System.getProperty("codavaj.wget.exclude"));
+        }
+        scope.setMaxDepth(Integer.getInteger("codavaj.wget.max.depth", Integer.MAX_VALUE));
+        return scope;
+    }
+
+    /**
+     * @param relativePath normalized by {@link LinkUtils#normalizeRelativeUrl(String)}
+     * @param depth number of links from a start page
+     * @return whether the page is followed
+     */
+    public boolean accepts(String relativePath, int depth) {
+        if (depth > maxDepth) {
+            return false;
+        }
+        if (!kinds.contains(PageKind.of(relativePath))) {
+            return false;
+        }
+        for (Pattern exclude : excludes) {
+            if (exclude.matcher(relativePath).find()) {
+                return false;
+            }
+        }
+        if (includes.isEmpty() || relativePath.replaceFirst("[?#].*$", "").indexOf('/') < 0) {
+            return true;
+        }
+        for (Pattern include : includes) {
+            if (include.matcher(relativePath).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param regex found in relative paths of pages followed, e.g. "^java/util/"
+     */
+    public void addInclude(String regex) {
+        includes.add(Pattern.compile(regex));
+    }
+
+    /**
+     * @param regex found in relative paths of pages not followed
+     */
+    public void addExclude(String regex) {
+        excludes.add(Pattern.compile(regex));
+    }
+
+    public Set<PageKind> getKinds() {
+        return kinds;
+    }
+
+    /**
+     * @param kinds kinds of pages followed
+     */
+    public void setKinds(Set<PageKind> kinds) {
+        this.kinds = EnumSet.copyOf(kinds);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @param maxDepth max number of links from a start page
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+}
+
+/* */
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Fetches pages for {@link Wget}.
+ * <p>
+ * implementations must be thread safe, a fetcher thread of a concurrent
+ * crawl calls {@link #fetch(String, Map)} at the same time as others.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public interface FetchEngine {
+
+    /** a fetched page, its body may be streamed until it is closed */
+    interface Page extends Closeable {
+
+        /** @return http status code */
+        int getResponseCode();
+
+        /** @return mime type without parameters, e.g. "text/html", nullable */
+        String getContentType();
+
+        /** @return a response header, nullable */
+        String getHeaderField(String name);
+
+        /** @return the body, may be read only once */
+        InputStream getInputStream() throws IOException;
+
+        /**
+         * @return links, frames, images and style sheets of an html page as they are written,
+         *         relative or absolute
+         */
+        List<String> getLinks() throws IOException;
+
+        /** releases the body, does nothing by default */
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * @param url absolute url
+     * @param headers request headers, e.g. validators
+     * @throws IOException the page is not available, including error statuses
+     */
+    Page fetch(String url, Map<String, String> headers) throws IOException, InterruptedException;
+}
+
+/* */
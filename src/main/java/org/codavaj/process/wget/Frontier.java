@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Pages to be fetched and pages seen.
+ * <p>
+ * a page is queued only once in a crawl, whether it is fetched already or
+ * still waiting. both checks are a hash lookup, so the cost of a link does
+ * not grow with the site. pages are taken last in first out, as the former
+ * stack did.
+ * </p>
+ * <p>
+ * not thread safe, {@link Wget} touches it from the crawling thread only.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class Frontier {
+
+    /** pages queued or taken, normalized, and their depth */
+    private final Map<String, Integer> visited = new HashMap<>();
+
+    /** pages to be fetched */
+    private final Deque<String> queue = new ArrayDeque<>();
+
+    /** number of pages taken */
+    private int taken;
+
+    /**
+     * @param relativeUrl normalized by {@link LinkUtils#normalizeRelativeUrl(String)}
+     * @return false when the page was seen already
+     */
+    boolean add(String relativeUrl) {
+        return add(relativeUrl, 0);
+    }
+
+    /**
+     * @param relativeUrl normalized by {@link LinkUtils#normalizeRelativeUrl(String)}
+     * @param depth number of links from a start page
+     * @return false when the page was seen already
+     */
+    boolean add(String relativeUrl, int depth) {
+        if (visited.putIfAbsent(relativeUrl, depth) == null) {
+            queue.push(relativeUrl);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * marks a page taken in a previous run, it is not queued again.
+     * @see Journal
+     */
+    void restoreTaken(String relativeUrl, int depth) {
+        if (visited.putIfAbsent(relativeUrl, depth) == null) {
+            taken++;
+        }
+    }
+
+    /** @return number of links from a start page */
+    int getDepth(String relativeUrl) {
+        return visited.getOrDefault(relativeUrl, 0);
+    }
+
+    /** @return the next page, null when there are no more */
+    String next() {
+        String relativeUrl = queue.poll();
+        if (relativeUrl != null) {
+            taken++;
+        }
+        return relativeUrl;
+    }
+
+    /** @return whether pages are waiting */
+    boolean hasNext() {
+        return !queue.isEmpty();
+    }
+
+    /** @return number of pages waiting */
+    int size() {
+        return queue.size();
+    }
+
+    /** @return number of pages taken */
+    int getTaken() {
+        return taken;
+    }
+}
+
+/* */
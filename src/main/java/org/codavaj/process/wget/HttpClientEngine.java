@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+
+/**
+ * Fetches pages by {@link HttpClient}, links are picked up by {@link LinkScanner}.
+ * <p>
+ * one client is shared by all fetchers, connections are reused and
+ * http/2 is used when a server supports it.
+ * </p>
+ * <p>
+ * a body is streamed to the reader, it is not held in memory except html
+ * pages, those are kept while they are read for picking up links.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class HttpClientEngine implements FetchEngine {
+
+    private static final Logger logger = Logger.getLogger(HttpClientEngine.class.getName());
+
+    private static final String HTML_CONTENT = "text/html";
+
+    /** */
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    /** until the response comes */
+    private final Duration requestTimeout;
+
+    /** requests time out in 60 seconds */
+    public HttpClientEngine() {
+        this(Duration.ofSeconds(60));
+    }
+
+    /**
+     * @param requestTimeout until the response of a request comes, a request
+     *        timed out is tried again by {@link Wget} as other failures of i/o
+     */
+    public HttpClientEngine(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public Page fetch(String url, Map<String, String> headers) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout).GET();
+        headers.forEach(builder::header);
+        HttpResponse<InputStream> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() >= 400) {
+            // the connection is released
+            response.body().close();
+            throw new HttpStatusException(response.statusCode(), url);
+        }
+        return new HttpClientPage(response);
+    }
+
+    /** */
+    private static class HttpClientPage implements Page {
+
+        final HttpResponse<InputStream> response;
+
+        /** an html body read so far, null until the body is read */
+        private ByteArrayOutputStream html;
+
+        HttpClientPage(HttpResponse<InputStream> response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getContentType() {
+            return getHeaderField("Content-Type") == null ? null :
+                getHeaderField("Content-Type").split(";")[0].trim().toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return response.headers().firstValue(name).orElse(null);
+        }
+
+        /** an html body is copied while it is read */
+        @Override
+        public InputStream getInputStream() {
+            if (html != null) {
+                throw new IllegalStateException("the body is read already: " + response.uri());
+            }
+            if (!HTML_CONTENT.equals(getContentType())) {
+                html = new ByteArrayOutputStream(0);
+                return response.body();
+            }
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            html = copy;
+            return new FilterInputStream(response.body()) {
+                @Override
+                public int read() throws IOException {
+                    int c = super.read();
+                    if (c != -1) {
+                        copy.write(c);
+                    }
+                    return c;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int r = super.read(b, off, len);
+                    if (r > 0) {
+                        copy.write(b, off, r);
+                    }
+                    return r;
+                }
+            };
+        }
+
+        /** the body is read here if it is not read yet */
+        @Override
+        public List<String> getLinks() throws IOException {
+            if (!HTML_CONTENT.equals(getContentType())) {
+                return List.of();
+            }
+            if (html == null) {
+                try (InputStream is = getInputStream()) {
+                    is.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            List<String> links = LinkScanner.scan(html.toString(getCharset()));
+            logger.fine("The page " + response.uri() + " contains " + links.size() + " links");
+            return links;
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.body().close();
+        }
+
+        /** the charset of the content type, or utf-8 as javadoc writes */
+        private Charset getCharset() {
+            String contentType = getHeaderField("Content-Type");
+            if (contentType != null) {
+                for (String parameter : contentType.split(";")) {
+                    String[] pair = parameter.trim().split("=", 2);
+                    if (pair.length == 2 && "charset".equalsIgnoreCase(pair[0].trim())) {
+                        try {
+                            return Charset.forName(pair[1].trim().replace("\"", ""));
+                        } catch (IllegalArgumentException e) {
+logger.fine("unknown charset: " + pair[1]);
+                        }
+                    }
+                }
+            }
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
+
+/* */
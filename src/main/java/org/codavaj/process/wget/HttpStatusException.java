@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.io.IOException;
+
+
+/**
+ * A server answered an error status.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class HttpStatusException extends IOException {
+
+    /** */
+    private final int responseCode;
+
+    /**
+     * @param responseCode http status code
+     * @param url the page requested
+     */
+    public HttpStatusException(int responseCode, String url) {
+        super("HTTP " + responseCode + " " + url);
+        this.responseCode = responseCode;
+    }
+
+    /** @return http status code */
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    /** @return whether trying again will not help, 4xx but timeouts and throttling */
+    public boolean isPermanent() {
+        return responseCode >= 400 && responseCode < 500 && responseCode != 408 && responseCode != 429;
+    }
+}
+
+/* */
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.xml.sax.SAXException;
+
+import com.meterware.httpunit.GetMethodWebRequest;
+import com.meterware.httpunit.HTMLElement;
+import com.meterware.httpunit.HttpException;
+import com.meterware.httpunit.WebConversation;
+import com.meterware.httpunit.WebImage;
+import com.meterware.httpunit.WebLink;
+import com.meterware.httpunit.WebRequest;
+import com.meterware.httpunit.WebResponse;
+
+
+/**
+ * Fetches pages by HttpUnit, links are taken from the dom HttpUnit builds.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class HttpUnitEngine implements FetchEngine {
+
+    private static final Logger logger = Logger.getLogger(HttpUnitEngine.class.getName());
+
+    private static final String HTTP_SRC_ATTRIBUTE = "src";
+
+    /** a conversation is not thread safe, one per fetcher */
+    private final ThreadLocal<WebConversation> conversations = ThreadLocal.withInitial(WebConversation::new);
+
+    @Override
+    public Page fetch(String url, Map<String, String> headers) throws IOException {
+        WebRequest request = new GetMethodWebRequest(url);
+        headers.forEach(request::setHeaderField);
+        try {
+            WebResponse response = conversations.get().getResponse(request);
+            return new HttpUnitPage(response);
+        } catch (HttpException e) {
+            throw new HttpStatusException(e.getResponseCode(), url);
+        } catch (SAXException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /** */
+    private static class HttpUnitPage implements Page {
+
+        final WebResponse response;
+
+        HttpUnitPage(WebResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return response.getResponseCode();
+        }
+
+        @Override
+        public String getContentType() {
+            return response.getContentType();
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return response.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return response.getInputStream();
+        }
+
+        @Override
+        public List<String> getLinks() throws IOException {
+            List<String> links = new ArrayList<>();
+            try {
+                logger.fine("The page " + response.getURL() + " contains "
+                    + response.getLinks().length + " links");
+
+                if (response.getFrameNames() != null) {
+                    // we have frames, so we need to put the link to each frame onto the
+                    for (int i = 0; i < response.getFrameNames().length; i++) {
+                        String framename = response.getFrameNames()[i];
+                        logger.fine("Frame " + framename);
+
+                        HTMLElement[] frame = response.getElementsWithName(framename);
+
+                        for (int j = 0; (frame.length != 0) && (j < frame.length); j++) {
+                            HTMLElement f = frame[j];
+                            String src = f.getAttribute(HTTP_SRC_ATTRIBUTE);
+                            links.add(src);
+                        }
+
+                        logger.info(frame[0].toString());
+                    }
+                }
+
+                if (response.getLinks() != null) {
+                    for (int i = 0; i < response.getLinks().length; i++) {
+                        WebLink link = response.getLinks()[i];
+
+                        links.add(link.getURLString());
+                    }
+                }
+
+                if (response.getImages() != null) {
+                    for (int i = 0; i < response.getImages().length; i++) {
+                        WebImage image = response.getImages()[i];
+
+                        links.add(image.getSource());
+                    }
+                }
+
+                if (response.getExternalStyleSheet() != null) {
+                    links.add(response.getExternalStyleSheet());
+                }
+            } catch (SAXException e) {
+                throw new IOException(e);
+            }
+            return links;
+        }
+    }
+}
+
+/* */
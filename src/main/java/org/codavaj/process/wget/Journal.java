@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * An append only log of a crawl, for resuming it.
+ * <p>
+ * a line is "+", a relative url, a tab and the depth of the url when the url
+ * is queued, the depth is 0 if it is missing. "-" and the url
+ * when the page is saved, its links are queued before that. "!" and the url
+ * when the page is given up by a permanent error like 404. a page failed
+ * otherwise has neither, it is fetched again when the crawl is resumed. lines are
+ * buffered and written at every {@link #interval} pages done, so a crawl
+ * killed suddenly loses at most those pages, they are fetched again.
+ * a line cut by the kill is ignored.
+ * </p>
+ * <p>
+ * a failure of writing stops journaling only, the crawl goes on.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class Journal implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(Journal.class.getName());
+
+    /** */
+    private final Path path;
+
+    /** */
+    private final Writer writer;
+
+    /** number of pages done between checkpoints */
+    private final int interval;
+
+    /** pages done since the last checkpoint */
+    private int count;
+
+    /** writing failed */
+    private boolean failed;
+
+    /**
+     * Replays the journal into the frontier if exists, and opens it for appending.
+     *
+     * @param path the journal file
+     * @param interval number of pages done between checkpoints
+     * @param frontier output, pages queued and done are restored
+     */
+    Journal(Path path, int interval, Frontier frontier) throws IOException {
+        this.path = path;
+        this.interval = interval;
+
+        if (Files.exists(path)) {
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            }
+            if (!lines.isEmpty() && !endsWithNewLine(path)) {
+                lines.remove(lines.size() - 1);
+            }
+
+            // url, depth
+            Map<String, Integer> queued = new LinkedHashMap<>();
+            Set<String> done = new HashSet<>();
+            for (String line : lines) {
+                if (line.startsWith("+")) {
+                    int p = line.lastIndexOf('\t');
+                    try {
+                        if (p < 0) {
+                            queued.putIfAbsent(line.substring(1), 0);
+                        } else {
+                            queued.putIfAbsent(line.substring(1, p), Integer.parseInt(line.substring(p + 1)));
+                        }
+                    } catch (NumberFormatException e) {
+logger.fine("broken line: " + line);
+                    }
+                } else if (line.startsWith("-") || line.startsWith("!")) {
+                    done.add(line.substring(1));
+                }
+            }
+            // in the same order, the frontier is last in first out
+            for (Map.Entry<String, Integer> e : queued.entrySet()) {
+                if (done.contains(e.getKey())) {
+                    frontier.restoreTaken(e.getKey(), e.getValue());
+                } else {
+                    frontier.add(e.getKey(), e.getValue());
+                }
+            }
+            logger.info("resuming: " + done.size() + " done, " + frontier.size() + " left");
+        }
+
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        // a line cut at the end of the previous run
+        writer.write('\n');
+    }
+
+    /** @return false when the last line is cut */
+    private static boolean endsWithNewLine(Path path) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /**
+     * a url is queued
+     * @param depth number of links from a start page
+     */
+    void queued(String relativeUrl, int depth) {
+        append('+', relativeUrl + '\t' + depth);
+    }
+
+    /** a page is saved and its links are queued, written at intervals */
+    void done(String relativeUrl) {
+        finished('-', relativeUrl);
+    }
+
+    /** a page is given up, not fetched again by resuming, written at intervals */
+    void failed(String relativeUrl) {
+        finished('!', relativeUrl);
+    }
+
+    /** */
+    private void finished(char mark, String relativeUrl) {
+        append(mark, relativeUrl);
+        if (++count >= interval) {
+            checkpoint();
+        }
+    }
+
+    /** */
+    private void append(char mark, String relativeUrl) {
+        if (failed) {
+            return;
+        }
+        try {
+            writer.write(mark);
+            writer.write(relativeUrl);
+            writer.write('\n');
+        } catch (IOException e) {
+            failure(e);
+        }
+    }
+
+    /** writes lines buffered */
+    void checkpoint() {
+        if (failed) {
+            return;
+        }
+        try {
+            writer.flush();
+            count = 0;
+        } catch (IOException e) {
+            failure(e);
+        }
+    }
+
+    /** */
+    private void failure(IOException e) {
+        failed = true;
+        logger.log(Level.WARNING, "journaling stopped: " + path, e);
+    }
+
+    /** writes lines buffered */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /** the crawl is complete, no need to resume */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
+
+/* */
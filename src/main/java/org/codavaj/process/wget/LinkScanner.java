@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * Picks up links from html in a single pass, no tree is built.
+ * <p>
+ * takes the same links as {@link HttpUnitEngine}, href of A and AREA,
+ * src of FRAME, IFRAME and IMG, and href of LINK of style sheets.
+ * comments and contents of SCRIPT and STYLE are skipped.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class LinkScanner {
+
+    /** tag name, attribute name of a link */
+    private static final Map<String, String> linkAttributes = Map.of(
+        "a", "href",
+        "area", "href",
+        "frame", "src",
+        "iframe", "src",
+        "img", "src",
+        "link", "href"
+    );
+
+    /** html being scanned */
+    private final CharSequence html;
+
+    /** */
+    private int position;
+
+    /** */
+    private LinkScanner(CharSequence html) {
+        this.html = html;
+    }
+
+    /**
+     * @param html a whole page
+     * @return links as they are written, entities are decoded
+     */
+    static List<String> scan(CharSequence html) {
+        return new LinkScanner(html).scan();
+    }
+
+    /** */
+    private List<String> scan() {
+        List<String> links = new ArrayList<>();
+        while (skipTo('<')) {
+            position++;
+            if (startsWith("!--")) {
+                position += 3;
+                skipPast("-->");
+                continue;
+            }
+            if (position >= html.length() || !Character.isLetter(html.charAt(position))) {
+                continue; // end tags, doctype, processing instructions
+            }
+
+            String name = readName().toLowerCase(Locale.ROOT);
+            Map<String, String> attributes = readAttributes();
+
+            String attribute = linkAttributes.get(name);
+            if (attribute != null && attributes.containsKey(attribute)) {
+                if (!"link".equals(name) || attributes.getOrDefault("rel", "").toLowerCase(Locale.ROOT).contains("stylesheet")) {
+                    links.add(attributes.get(attribute));
+                }
+            } else if ("script".equals(name) || "style".equals(name)) {
+                skipToIgnoreCase("</" + name);
+            }
+        }
+        return links;
+    }
+
+    /** @return attributes of the current tag, names are lower cased, the tag is consumed */
+    private Map<String, String> readAttributes() {
+        Map<String, String> attributes = new HashMap<>();
+        while (position < html.length()) {
+            char c = html.charAt(position);
+            if (c == '>') {
+                position++;
+                break;
+            } else if (Character.isWhitespace(c) || c == '/') {
+                position++;
+            } else {
+                String name = readName().toLowerCase(Locale.ROOT);
+                if (name.isEmpty()) {
+                    position++; // broken
+                    continue;
+                }
+                skipWhitespace();
+                String value = "";
+                if (position < html.length() && html.charAt(position) == '=') {
+                    position++;
+                    skipWhitespace();
+                    value = decode(readValue());
+                }
+                attributes.putIfAbsent(name, value);
+            }
+        }
+        return attributes;
+    }
+
+    /** */
+    private String readName() {
+        int start = position;
+        while (position < html.length()) {
+            char c = html.charAt(position);
+            if (Character.isWhitespace(c) || c == '>' || c == '/' || c == '=') {
+                break;
+            }
+            position++;
+        }
+        return html.subSequence(start, position).toString();
+    }
+
+    /** */
+    private String readValue() {
+        if (position >= html.length()) {
+            return "";
+        }
+        char quote = html.charAt(position);
+        if (quote == '"' || quote == '\'') {
+            int start = ++position;
+            while (position < html.length() && html.charAt(position) != quote) {
+                position++;
+            }
+            String value = html.subSequence(start, position).toString();
+            position++;
+            return value;
+        } else {
+            int start = position;
+            while (position < html.length() && !Character.isWhitespace(html.charAt(position)) && html.charAt(position) != '>') {
+                position++;
+            }
+            return html.subSequence(start, position).toString();
+        }
+    }
+
+    /** decodes character references used in urls */
+    static String decode(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            int semicolon = c == '&' ? value.indexOf(';', i) : -1;
+            if (semicolon > i + 1 && semicolon - i <= 10) {
+                String entity = value.substring(i + 1, semicolon);
+                String decoded = decodeEntity(entity);
+                if (decoded != null) {
+                    sb.append(decoded);
+                    i = semicolon + 1;
+                    continue;
+                }
+            }
+            sb.append(c);
+            i++;
+        }
+        return sb.toString();
+    }
+
+    /** @return null if unknown */
+    private static String decodeEntity(String entity) {
+        switch (entity) {
+        case "amp": return "&";
+        case "lt": return "<";
+        case "gt": return ">";
+        case "quot": return "\"";
+        case "apos": return "'";
+        default:
+            try {
+                if (entity.startsWith("#x") || entity.startsWith("#X")) {
+                    return new String(Character.toChars(Integer.parseInt(entity.substring(2), 16)));
+                } else if (entity.startsWith("#")) {
+                    return new String(Character.toChars(Integer.parseInt(entity.substring(1))));
+                }
+            } catch (IllegalArgumentException e) {
+                // not a character reference
+            }
+            return null;
+        }
+    }
+
+    /** */
+    private void skipWhitespace() {
+        while (position < html.length() && Character.isWhitespace(html.charAt(position))) {
+            position++;
+        }
+    }
+
+    /** @return false when not found */
+    private boolean skipTo(char c) {
+        while (position < html.length()) {
+            if (html.charAt(position) == c) {
+                return true;
+            }
+            position++;
+        }
+        return false;
+    }
+
+    /** */
+    private boolean startsWith(String s) {
+        if (position + s.length() > html.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (html.charAt(position + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** */
+    private void skipPast(String s) {
+        while (position < html.length() && !startsWith(s)) {
+            position++;
+        }
+        position = Math.min(html.length(), position + s.length());
+    }
+
+    /** moves to the start of s, s is not consumed */
+    private void skipToIgnoreCase(String s) {
+        while (position + s.length() <= html.length()) {
+            if (html.subSequence(position, position + s.length()).toString().equalsIgnoreCase(s)) {
+                return;
+            }
+            position++;
+        }
+        position = html.length();
+    }
+}
+
+/* */
@@ -140,6 +140,32 @@ public class LinkUtils {
         return relativeUrl;
     }
 
+    /**
+     * Makes a key of a relative URL, spellings of the same page become the
+     * same string. "a//b/./c.html" gives "a/b/c.html".
+     *
+     * @param relativeUrl a result of {@link #relativeUrl(String, String, String)}, nullable
+     * @return the normalized URL, null if the URL is null
+     */
+    public String normalizeRelativeUrl(String relativeUrl) {
+        if (relativeUrl == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(relativeUrl.length());
+        for (String segment : relativeUrl.split(URL_SEPARATOR, -1)) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(URL_SEPARATOR);
+            }
+            sb.append(segment);
+        }
+
+        return sb.toString();
+    }
+
     /**
      * Return the directory of the URL. For instance a/b/c/D.ext gives a/b/c/
      *
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.wget;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Validators and links of mirrored pages, for conditional re-crawling.
+ * <p>
+ * a line of the file is a relative url, an etag, a last modified date,
+ * a sha-256 of the contents and links of the page separated by tabs.
+ * missing values are empty.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class Manifest {
+
+    /** a mirrored page */
+    static class Entry {
+        /** nullable */
+        final String etag;
+        /** nullable */
+        final String lastModified;
+        /** hex, nullable */
+        final String digest;
+        /** links as they are written in the page */
+        final List<String> links;
+
+        Entry(String etag, String lastModified, String digest, List<String> links) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.digest = digest;
+            this.links = Collections.unmodifiableList(new ArrayList<>(links));
+        }
+    }
+
+    /** */
+    private final Path path;
+
+    /** relative url, entry. fetchers update this concurrently */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param path the manifest file, read if exists
+     */
+    Manifest(Path path) throws IOException {
+        this.path = path;
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", -1);
+                    if (fields.length < 4) {
+                        continue;
+                    }
+                    List<String> links = new ArrayList<>(Arrays.asList(fields).subList(4, fields.length));
+                    links.removeIf(String::isEmpty);
+                    entries.put(fields[0], new Entry(nullIfEmpty(fields[1]), nullIfEmpty(fields[2]), nullIfEmpty(fields[3]), links));
+                }
+            }
+        }
+    }
+
+    /** @return nullable */
+    Entry get(String relativeUrl) {
+        return entries.get(relativeUrl);
+    }
+
+    /** */
+    void put(String relativeUrl, Entry entry) {
+        entries.put(relativeUrl, entry);
+    }
+
+    /**
+     * Writes all entries, the file is replaced at once.
+     */
+    void save() throws IOException {
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), "." + path.getFileName(), ".part");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> e : new TreeMap<>(entries).entrySet()) {
+                    Entry entry = e.getValue();
+                    writer.write(e.getKey());
+                    writer.write('\t');
+                    writer.write(emptyIfNull(entry.etag));
+                    writer.write('\t');
+                    writer.write(emptyIfNull(entry.lastModified));
+                    writer.write('\t');
+                    writer.write(emptyIfNull(entry.digest));
+                    for (String link : entry.links) {
+                        // tabs and line breaks would break the line
+                        writer.write('\t');
+                        writer.write(link.replaceAll("[\t\r\n]", ""));
+                    }
+                    writer.write('\n');
+                }
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** */
+    private static String nullIfEmpty(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /** */
+    private static String emptyIfNull(String value) {
+        return value == null ? "" : value;
+    }
+}
+
+/* */
@@ -17,9 +17,38 @@
 package org.codavaj.process.wget;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.Stack;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,14 +56,6 @@ import org.codavaj.ProcessException;
 import org.codavaj.process.ProgressEvent;
 import org.codavaj.process.Progressive;
 
-import com.meterware.httpunit.GetMethodWebRequest;
-import com.meterware.httpunit.HTMLElement;
-import com.meterware.httpunit.WebConversation;
-import com.meterware.httpunit.WebImage;
-import com.meterware.httpunit.WebLink;
-import com.meterware.httpunit.WebRequest;
-import com.meterware.httpunit.WebResponse;
-
 /**
  * DOCUMENT ME!
  */
@@ -47,16 +68,65 @@ public class Wget implements Progressive<Void> {
     private static final String CONST_CONSTANTS_HTML = "constant-values.html";
     private static final String CONST_SERIALIZED_FORM_HTML = "serialized-form.html";
 
-    private static final String HTTP_SRC_ATTRIBUTE = "src";
     private static final String HTML_CONTENT = "text/html";
 
     private String rootUrl;
     private String javadocDirName;
     private boolean overwriteFiles = false;
     private int retryCount = 5;
-    private long retryWait = 10000;
+    private long retryWait = 1000;
+    private long maxRetryWait = 60000;
     private LinkUtils linkUtil = new LinkUtils();
 
+    /** number of parallel fetchers, 1 means serial crawling */
+    private int threads = Integer.getInteger("codavaj.wget.threads", 1);
+
+    /** max connections to a host at once */
+    private int connectionsPerHost = Integer.getInteger("codavaj.wget.connections.per.host", 4);
+
+    /** host, permits of connections */
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    /** whether to refresh a mirror by conditional requests */
+    private boolean incremental = Boolean.getBoolean("codavaj.wget.incremental");
+
+    /** validators and links of the mirror, null when not incremental */
+    private Manifest manifest;
+
+    /** whether to journal a crawl and resume it if it was interrupted or pages failed */
+    private boolean resumable = Boolean.getBoolean("codavaj.wget.resumable");
+
+    /** number of pages done between checkpoints of the journal */
+    private int checkpointInterval = 100;
+
+    /** the journal of the crawl, null when not resumable */
+    private Journal journal;
+
+    /** url, reason of pages given up in the last crawl */
+    private final Map<String, String> failures = new LinkedHashMap<>();
+
+    /** number of pages failed in the last crawl which may be got by resuming it */
+    private int resumableFailures;
+
+    /** pages followed */
+    private CrawlScope scope = CrawlScope.fromSystemProperties();
+
+    /** receives relative paths of pages done, nullable */
+    private BlockingQueue<String> pageQueue;
+
+    /** "STORED" or "DEFLATED", entries of an archive mirror */
+    private String archiveCompression = System.getProperty("codavaj.wget.archive.compression", "DEFLATED").toUpperCase();
+
+    /** the archive being written, null when the mirror is a directory */
+    private FileSystem archive;
+
+    /** the javadoc directory or the root of the archive */
+    private Path mirrorRoot;
+
+    /** fetches pages, "httpunit" or "httpclient" */
+    private FetchEngine engine = "httpclient".equals(System.getProperty("codavaj.wget.engine")) ?
+        new HttpClientEngine() : new HttpUnitEngine();
+
     /**
      * Wget processes the project by downloading the javadoc tree and  saving
      * it into the javadoc directory of the basedir
@@ -66,11 +136,13 @@ public class Wget implements Progressive<Void> {
     public Void process() throws ProcessException {
         File javadocDir = new File(javadocDirName);
 
-        if (!javadocDir.exists()) {
-            javadocDir.mkdirs();
-        }
-        if (!javadocDir.isDirectory()) {
-            throw new ProcessException(javadocDir + " must be a directory.");
+        if (!isArchive()) {
+            if (!javadocDir.exists()) {
+                javadocDir.mkdirs();
+            }
+            if (!javadocDir.isDirectory()) {
+                throw new ProcessException(javadocDir + " must be a directory.");
+            }
         }
 
         if (!rootUrl.startsWith("http://") && !rootUrl.startsWith("https://")) {
@@ -81,183 +153,490 @@ public class Wget implements Progressive<Void> {
             throw new ProcessException("rootUrl must not end with index.html");
         }
         rootUrl = linkUtil.normalizeUrl(rootUrl);
+        failures.clear();
+        resumableFailures = 0;
         try {
-            // create the conversation object which will maintain state for us
-            WebConversation wc = new WebConversation();
+            if (isArchive()) {
+                Path file = javadocDir.toPath().toAbsolutePath();
+                Files.createDirectories(file.getParent());
+                archive = FileSystems.newFileSystem(file, Map.of("create", "true", "compressionMethod", archiveCompression));
+                mirrorRoot = archive.getPath("/");
+            } else {
+                mirrorRoot = javadocDir.toPath();
+            }
+
+            if (incremental) {
+                manifest = new Manifest(getManifestPath());
+            }
 
-            // stack to hold URL's which need fetching
-            Stack<String> got = new Stack<>();
-            Stack<String> fetch = new Stack<>();
+            // URL's which need fetching and URL's seen
+            Frontier frontier = new Frontier();
 
-            fetch.push(CONST_INDEX_HTML);
-            fetch.push(CONST_INDEX_ALL_HTML);
-            fetch.push(CONST_CONSTANTS_HTML);
-            fetch.push(CONST_SERIALIZED_FORM_HTML);
+            if (resumable && archive != null) {
+                // an archive is written when it is closed, pages journaled as done may be lost
+                logger.warning("resumable mode is disabled for an archive");
+            } else if (resumable) {
+                journal = new Journal(getJournalPath(), checkpointInterval, frontier);
+            }
 
-            while (fetch.size() > 0) {
-                getPage(wc, got, fetch);
+            if (frontier.add(CONST_INDEX_HTML) && journal != null) {
+                journal.queued(CONST_INDEX_HTML, 0);
+            }
+            addSeed(CONST_INDEX_ALL_HTML, frontier);
+            addSeed(CONST_CONSTANTS_HTML, frontier);
+            addSeed(CONST_SERIALIZED_FORM_HTML, frontier);
+
+            if (threads > 1) {
+                crawl(frontier);
+            } else {
+                // pages failed are tried again after the others ready are done
+                DelayQueue<Retry> retries = new DelayQueue<>();
+                int done = 0;
+
+                while (frontier.hasNext() || !retries.isEmpty()) {
+                    Retry retry = frontier.hasNext() ? retries.poll() : retries.take();
+                    Outcome outcome = retry != null ? getPage(retry.relativePath, retry.attempt) : getPage(frontier.next(), 0);
+
+                    if (complete(outcome, frontier, retries)) {
+                        done++;
+                        notifyListeners(new ProgressEvent(done, done + retries.size() + frontier.size(), rootUrl + outcome.relativePath));
+                    }
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                StringBuilder report = new StringBuilder("Failed to get " + failures.size() + " pages");
+                failures.forEach((url, reason) -> report.append(System.lineSeparator()).append(url).append(" ... ").append(reason));
+                logger.warning(report.toString());
+            }
+
+            if (archive != null) {
+                archive.close();
+                archive = null;
+            }
+
+            if (journal != null) {
+                if (resumableFailures == 0) {
+                    journal.delete();
+                    journal = null;
+                } else {
+                    logger.info("journal is kept to get " + resumableFailures + " pages failed again: " + getJournalPath());
+                }
             }
         } catch (Exception e) {
             throw new ProcessException(e);
+        } finally {
+            if (journal != null) {
+                try {
+                    // kept for resuming
+                    journal.close();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to close the journal", e);
+                }
+                journal = null;
+            }
+            if (manifest != null) {
+                try {
+                    // pages done so far are valid even if the crawl failed
+                    manifest.save();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to save the manifest", e);
+                }
+                manifest = null;
+            }
+            if (archive != null) {
+                try {
+                    // pages done so far are kept as the manifest says
+                    archive.close();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to write the archive", e);
+                }
+                archive = null;
+            }
         }
 
         return null;
     }
 
-    private void getPage(WebConversation wc, Stack<String> got, Stack<String> fetch)
-        throws Exception {
-        String relativePath = fetch.pop();
-        got.push(relativePath);
+    /** @return whether the mirror is written into a zip or a jar file */
+    private boolean isArchive() {
+        String name = javadocDirName.toLowerCase();
+        return name.endsWith(".zip") || name.endsWith(".jar");
+    }
 
-        String url = rootUrl + relativePath;
-        notifyListeners(new ProgressEvent(got.size(), got.size() + fetch.size(), url));
+    /** queues a page where a crawl starts if in the scope, unless it is known by the journal */
+    private void addSeed(String relativeUrl, Frontier frontier) {
+        if (!scope.accepts(relativeUrl, 0)) {
+            logger.fine("out of scope " + relativeUrl);
+            return;
+        }
+        if (frontier.add(relativeUrl) && journal != null) {
+            journal.queued(relativeUrl, 0);
+        }
+    }
+
+    /**
+     * @return the journal file of the resumable mode, in the javadoc directory
+     */
+    public Path getJournalPath() {
+        return Paths.get(javadocDirName, ".wget-journal");
+    }
 
+    /**
+     * @return the manifest file of the incremental mode, "&lt;javadoc dir&gt;.manifest" next to the javadoc directory
+     */
+    public Path getManifestPath() {
+        Path dir = Paths.get(javadocDirName).toAbsolutePath().normalize();
+        return dir.resolveSibling(dir.getFileName() + ".manifest");
+    }
+
+    /**
+     * Fetches pages by a bounded worker pool. The frontier, retries
+     * and the listeners are touched only by the calling thread, fetchers
+     * return links found and those are added in order of completion.
+     * A page failed waits for its retry in a queue, the pool keeps fetching
+     * other pages meanwhile.
+     *
+     * @param frontier pages to be fetched
+     */
+    private void crawl(Frontier frontier) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
         try {
-            WebResponse response = fetchPage(wc, url);
+            CompletionService<Outcome> service = new ExecutorCompletionService<>(executor);
+            DelayQueue<Retry> retries = new DelayQueue<>();
+            int inFlight = 0;
+            int done = 0;
+
+            while (frontier.hasNext() || inFlight > 0 || !retries.isEmpty()) {
+                while (inFlight < threads) {
+                    Retry retry = retries.poll();
+                    if (retry != null) {
+                        service.submit(() -> getPage(retry.relativePath, retry.attempt));
+                    } else if (frontier.hasNext()) {
+                        String relativePath = frontier.next();
+                        service.submit(() -> getPage(relativePath, 0));
+                    } else {
+                        break;
+                    }
+                    inFlight++;
+                }
 
-            // save the retrieved contents to a file, relative to the javadoc basedir
-            saveContent(relativePath, response);
+                if (inFlight == 0) {
+                    // only retries are waiting
+                    Retry retry = retries.take();
+                    service.submit(() -> getPage(retry.relativePath, retry.attempt));
+                    inFlight++;
+                }
 
-            if (!HTML_CONTENT.equalsIgnoreCase(response.getContentType())) {
-                logger.fine("not html " + url);
+                // wakes up for a retry when a fetcher is free
+                Retry next = retries.peek();
+                Future<Outcome> future = next == null || inFlight >= threads ? service.take() :
+                    service.poll(next.getDelay(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    continue;
+                }
+                inFlight--;
 
-                return;
+                Outcome outcome = future.get();
+                if (complete(outcome, frontier, retries)) {
+                    done++;
+                    notifyListeners(new ProgressEvent(done, done + inFlight + retries.size() + frontier.size(), rootUrl + outcome.relativePath));
+                }
             }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            logger.fine("The page " + relativePath + " contains "
-                + response.getLinks().length + " links");
-
-            if (response.getFrameNames() != null) {
-                // we have frames, so we need to put the link to each frame onto the
-                for (int i = 0; i < response.getFrameNames().length; i++) {
-                    String framename = response.getFrameNames()[i];
-                    logger.fine("Frame " + framename);
+    /**
+     * Takes a result of a fetcher on the crawling thread.
+     *
+     * @return false when the page is tried again later
+     */
+    private boolean complete(Outcome outcome, Frontier frontier, DelayQueue<Retry> retries) throws InterruptedException {
+        if (outcome.retry != null) {
+            retries.add(outcome.retry);
+            return false;
+        }
 
-                    HTMLElement[] frame = response.getElementsWithName(framename);
+        String url = rootUrl + outcome.relativePath;
+        int depth = frontier.getDepth(outcome.relativePath) + 1;
+        for (String link : outcome.links) {
+            addRelativeUrl(url, link, depth, frontier);
+        }
+        if (outcome.failure != null) {
+            failures.put(url, String.valueOf(outcome.failure.getMessage()));
+            if (isPermanent(outcome.failure)) {
+                if (journal != null) {
+                    journal.failed(outcome.relativePath);
+                }
+            } else {
+                // not journaled, it stays queued for resuming
+                resumableFailures++;
+            }
+        } else {
+            if (pageQueue != null) {
+                // blocks while the consumer is behind
+                pageQueue.put(outcome.relativePath);
+            }
+            if (journal != null) {
+                journal.done(outcome.relativePath);
+            }
+        }
+        return true;
+    }
 
-                    for (int j = 0; (frame.length != 0) && (j < frame.length); j++) {
-                        HTMLElement f = frame[j];
-                        String src = f.getAttribute(HTTP_SRC_ATTRIBUTE);
-                        addRelativeUrl(url, src, got, fetch);
-                    }
+    /**
+     * Fetches and saves a page, once.
+     *
+     * @param attempt number of attempts failed before
+     * @return links, frames, images and a style sheet of the page as they are written,
+     *         or a retry when the failure is worth trying again
+     */
+    private Outcome getPage(String relativePath, int attempt) {
+        String url = rootUrl + relativePath;
+        List<String> links = new ArrayList<>();
 
-                    logger.info(frame[0].toString());
-                }
+        try {
+            Manifest.Entry cached = manifest != null ? manifest.get(relativePath) : null;
+            if (cached != null && !Files.exists(mirrorRoot.resolve(relativePath))) {
+                cached = null;
             }
 
-            if (response.getLinks() != null) {
-                for (int i = 0; i < response.getLinks().length; i++) {
-                    WebLink link = response.getLinks()[i];
+            // a body may be streamed while the page is open, it is counted as a connection
+            Semaphore permits = hostPermits.computeIfAbsent(URI.create(url).getHost(), h -> new Semaphore(connectionsPerHost));
+            permits.acquire();
+            try (FetchEngine.Page page = fetchPage(url, cached)) {
+                if (cached != null && page.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    logger.fine("not modified " + url);
 
-                    addRelativeUrl(url, link.getURLString(), got, fetch);
+                    return new Outcome(relativePath, new ArrayList<>(cached.links), null, null);
                 }
-            }
 
-            if (response.getImages() != null) {
-                for (int i = 0; i < response.getImages().length; i++) {
-                    WebImage image = response.getImages()[i];
+                // save the retrieved contents to a file, relative to the javadoc basedir
+                String digest = saveContent(relativePath, page, cached != null ? cached.digest : null);
+
+                if (!HTML_CONTENT.equalsIgnoreCase(page.getContentType())) {
+                    logger.fine("not html " + url);
 
-                    addRelativeUrl(url, image.getSource(), got, fetch);
+                    remember(relativePath, page, digest, links);
+                    return new Outcome(relativePath, links, null, null);
                 }
-            }
 
-            if (response.getExternalStyleSheet() != null) {
-                addRelativeUrl(url, response.getExternalStyleSheet(), got, fetch);
+                links.addAll(page.getLinks());
+
+                remember(relativePath, page, digest, links);
+                return new Outcome(relativePath, links, null, null);
+            } finally {
+                permits.release();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome(relativePath, links, e, null);
         } catch (Exception e) {
+            if (!isPermanent(e) && attempt + 1 < retryCount) {
+                long delay = backoff(attempt);
+                logger.fine("Failed to get page " + url + " ... retrying in " + delay + " ms, " + e.getMessage());
+
+                return new Outcome(relativePath, links, e, new Retry(relativePath, attempt + 1, delay));
+            }
+
             logger.log(Level.WARNING, "Failed to get " + relativePath, e);
+            return new Outcome(relativePath, links, e, null);
         }
     }
 
-    private WebResponse fetchPage(WebConversation wc, String url)
-        throws InterruptedException, ProcessException {
-        Exception lastException = null;
+    /**
+     * @param attempt number of attempts failed before
+     * @return exponential wait of the retry in milliseconds, half of it is jittered
+     *         not to hit a server at once
+     */
+    private long backoff(int attempt) {
+        long wait = Math.min(maxRetryWait, retryWait << Math.min(attempt, 30));
+        return wait / 2 + ThreadLocalRandom.current().nextLong(wait / 2 + 1);
+    }
 
-        for (int i = 0; i < retryCount; i++) {
-            try {
-                WebRequest request = new GetMethodWebRequest(url);
-                WebResponse response = wc.getResponse(request);
+    /** a result of an attempt to get a page */
+    private static class Outcome {
+        final String relativePath;
+        /** found in the page */
+        final List<String> links;
+        /** null when succeeded */
+        final Exception failure;
+        /** not null when the page is tried again */
+        final Retry retry;
+
+        Outcome(String relativePath, List<String> links, Exception failure, Retry retry) {
+            this.relativePath = relativePath;
+            this.links = links;
+            this.failure = failure;
+            this.retry = retry;
+        }
+    }
 
-                return response;
-            } catch (Exception e) {
-                lastException = e;
+    /** @return whether the failure is not worth trying again, e.g. 404 */
+    private static boolean isPermanent(Exception e) {
+        return e instanceof HttpStatusException && ((HttpStatusException) e).isPermanent();
+    }
 
-                if (i < retryCount) {
-                    logger.fine("Failed to get page " + url + " ... retrying"
-                        + e.getMessage());
-                    Thread.sleep(retryWait);
-                }
-            }
+    /** a page waiting to be tried again */
+    private static class Retry implements Delayed {
+        final String relativePath;
+        /** number of attempts failed */
+        final int attempt;
+        /** in nano time */
+        final long due;
+
+        Retry(String relativePath, int attempt, long delay) {
+            this.relativePath = relativePath;
+            this.attempt = attempt;
+            this.due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
         }
 
-        throw new ProcessException("Failed to retrieve " + url, lastException);
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(due - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(due, ((Retry) o).due);
+        }
     }
 
-    private void addRelativeUrl(String url, String link, Stack<String> got, Stack<String> fetch) {
-        String relativeUrl = linkUtil.relativeUrl(rootUrl, url, link);
+    /** records validators and links of a page fetched in the incremental mode */
+    private void remember(String relativePath, FetchEngine.Page page, String digest, List<String> links) {
+        if (manifest != null) {
+            manifest.put(relativePath, new Manifest.Entry(page.getHeaderField("ETag"), page.getHeaderField("Last-Modified"), digest, links));
+        }
+    }
+
+    /**
+     * @param cached validators of the mirrored page, the request is conditional if not null
+     */
+    private FetchEngine.Page fetchPage(String url, Manifest.Entry cached)
+        throws IOException, InterruptedException {
+        Map<String, String> headers = new HashMap<>();
+        if (cached != null && cached.etag != null) {
+            headers.put("If-None-Match", cached.etag);
+        }
+        if (cached != null && cached.lastModified != null) {
+            headers.put("If-Modified-Since", cached.lastModified);
+        }
+
+        return engine.fetch(url, headers);
+    }
+
+    /**
+     * @param depth number of links from a start page to the link
+     */
+    private void addRelativeUrl(String url, String link, int depth, Frontier frontier) {
+        String relativeUrl = linkUtil.normalizeRelativeUrl(linkUtil.relativeUrl(rootUrl, url, link));
 
         if (relativeUrl == null) {
             return;
         }
 
-        if (got.contains(relativeUrl)) {
-            // link will be retrieved
-            logger.fine("skipping fetched link " + relativeUrl);
-        } else if (fetch.contains(relativeUrl)) {
-            logger.fine("skipping planned link " + relativeUrl);
-        } else {
+        if (!scope.accepts(relativeUrl, depth)) {
+            logger.fine("out of scope " + relativeUrl);
+            return;
+        }
+
+        if (frontier.add(relativeUrl, depth)) {
             logger.fine("adding link " + relativeUrl);
-            fetch.push(relativeUrl);
+            if (journal != null) {
+                journal.queued(relativeUrl, depth);
+            }
+        } else {
+            // link is retrieved or will be retrieved
+            logger.fine("skipping known link " + relativeUrl);
         }
     }
 
-    private void saveContent(String relativePath, WebResponse response)
+    /**
+     * @param previousDigest sha-256 of the mirrored page, the page is not rewritten when it is the same, nullable
+     * @return sha-256 of the contents in hex, null when skipped
+     */
+    private String saveContent(String relativePath, FetchEngine.Page page, String previousDigest)
         throws Exception {
         logger.fine("saving " + relativePath);
 
         // make sure the directory we want to write to exist
         String directoryName = linkUtil.relativeDirectoryOfLink(relativePath);
-        String fullDirName = javadocDirName + File.separator
-            + directoryName;
-        File directory = new File(fullDirName);
+        Path directory = mirrorRoot.resolve(directoryName);
 
-        if (!directory.exists()) {
-            if (!directory.mkdirs()) {
-                logger.warning("Unable to create directory " + fullDirName);
+        if (!Files.isDirectory(directory)) {
+            try {
+                // another fetcher may have made it
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                logger.warning("Unable to create directory " + directory);
             }
         }
 
         String baseName = linkUtil.basenameOfLink(relativePath);
-        String fullFilename = fullDirName + File.separator + baseName;
-        File outputFile = new File(fullFilename);
+        Path outputFile = directory.resolve(baseName);
 
-        if (outputFile.exists() && !overwriteFiles) {
-            logger.fine(fullFilename + " skipped since exists locally.");
+        // the incremental mode refreshes pages changed
+        if (Files.exists(outputFile) && !overwriteFiles && manifest == null) {
+            logger.fine(outputFile + " skipped since exists locally.");
 
-            return;
+            return null;
         }
 
-        FileOutputStream fos = new FileOutputStream(outputFile);
-
-        // TODO buffered variant
-        InputStream is = response.getInputStream();
-        int b = 0;
+        // a failed download must not leave a file which is skipped as complete next time,
+        // an archive takes entries when it is closed, so the temporary file is outside
+        Path temp = archive != null ? Files.createTempFile("." + baseName, ".part") :
+            Files.createTempFile(directory, "." + baseName, ".part");
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            try (InputStream is = new DigestInputStream(page.getInputStream(), md)) {
+                Files.copy(is, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            StringBuilder digest = new StringBuilder();
+            for (byte b : md.digest()) {
+                digest.append(String.format("%02x", b));
+            }
 
-        while ((b = is.read()) != -1) {
-            fos.write(b);
+            if (digest.toString().equals(previousDigest) && Files.exists(outputFile)) {
+                logger.fine(outputFile + " not changed.");
+            } else if (archive != null) {
+                Files.copy(temp, outputFile, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                try {
+                    Files.move(temp, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, outputFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            return digest.toString();
+        } finally {
+            Files.deleteIfExists(temp);
         }
-
-        fos.close();
     }
 
     public String getJavadocDirName() {
         return javadocDirName;
     }
 
+    /**
+     * @param javadocDirName the mirror directory, or a zip or a jar file which is written when the crawl ends
+     */
     public void setJavadocDirName(String javadocDirName) {
         this.javadocDirName = javadocDirName;
     }
 
+    public String getArchiveCompression() {
+        return archiveCompression;
+    }
+
+    /**
+     * @param archiveCompression "STORED" or "DEFLATED", entries of an archive mirror
+     */
+    public void setArchiveCompression(String archiveCompression) {
+        this.archiveCompression = archiveCompression;
+    }
+
     public boolean isOverwriteFiles() {
         return overwriteFiles;
     }
@@ -270,6 +649,9 @@ public class Wget implements Progressive<Void> {
         return retryCount;
     }
 
+    /**
+     * @param retryCount max attempts to get a page, client errors but timeouts and throttling are not tried again
+     */
     public void setRetryCount(int retryCount) {
         this.retryCount = retryCount;
     }
@@ -278,10 +660,124 @@ public class Wget implements Progressive<Void> {
         return retryWait;
     }
 
+    /**
+     * @param retryWait wait before the first retry in milliseconds, doubled for each retry
+     */
     public void setRetryWait(long retryWait) {
         this.retryWait = retryWait;
     }
 
+    public long getMaxRetryWait() {
+        return maxRetryWait;
+    }
+
+    /**
+     * @param maxRetryWait upper limit of the wait before a retry in milliseconds
+     */
+    public void setMaxRetryWait(long maxRetryWait) {
+        this.maxRetryWait = maxRetryWait;
+    }
+
+    /**
+     * @return url, reason of pages given up in the last crawl
+     */
+    public Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param threads number of parallel fetchers, 1 means serial crawling
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+
+    /**
+     * @param connectionsPerHost max connections to a host at once
+     */
+    public void setConnectionsPerHost(int connectionsPerHost) {
+        this.connectionsPerHost = connectionsPerHost;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @param incremental whether to refresh a mirror by conditional requests,
+     *        pages not modified are neither written nor parsed for links
+     * @see #getManifestPath()
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public boolean isResumable() {
+        return resumable;
+    }
+
+    /**
+     * @param resumable whether to journal a crawl and resume it if it was interrupted,
+     *        or get pages failed again if some of them failed
+     * @see #getJournalPath()
+     */
+    public void setResumable(boolean resumable) {
+        this.resumable = resumable;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * @param checkpointInterval number of pages done between checkpoints of the journal
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public FetchEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @param engine fetches pages, {@link HttpUnitEngine} by default
+     */
+    public void setEngine(FetchEngine engine) {
+        this.engine = engine;
+    }
+
+    public CrawlScope getScope() {
+        return scope;
+    }
+
+    /**
+     * @param scope pages followed, everything reachable by default
+     */
+    public void setScope(CrawlScope scope) {
+        this.scope = scope;
+    }
+
+    public BlockingQueue<String> getPageQueue() {
+        return pageQueue;
+    }
+
+    /**
+     * @param pageQueue receives relative paths of pages saved or not modified, in order of completion.
+     *        a bounded queue holds the crawl back while the consumer is behind. nullable
+     */
+    public void setPageQueue(BlockingQueue<String> pageQueue) {
+        this.pageQueue = pageQueue;
+    }
+
     public String getRootUrl() {
         return rootUrl;
     }
@@ -17,9 +17,9 @@
 package org.codavaj.type;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A reflection-like representation of a java.lang.Package.
@@ -28,8 +28,8 @@ public class Package {
     static final String defaultPackageName = "";
     private String name;
     private Package parentPackage;
-    private Map<String, Type> types = new HashMap<>();
-    private Map<String, Package> packages = new HashMap<>();
+    private Map<String, Type> types = new ConcurrentHashMap<>();
+    private Map<String, Package> packages = new ConcurrentHashMap<>();
 
     Package(String packagename) {
         name = packagename;
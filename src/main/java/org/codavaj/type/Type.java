@@ -19,7 +19,9 @@ package org.codavaj.type;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 
@@ -42,6 +44,12 @@ public class Type extends Modifiable implements Commentable {
     private String typeParameters; // generics
     private Package pckg;
 
+    // lookup indexes, built lazily and dropped when a member is created
+    private Map<String, Method> methodIndex;
+    private Map<String, Method> constructorIndex;
+    private Map<String, Field> fieldIndex;
+    private Map<String, EnumConst> enumConstIndex;
+
     /**
      * Get the fully qualified type name - a.b.c.d.E for an interface or class
      * type. Inner classes are identified as having a '$' in thir name -
@@ -198,17 +206,18 @@ public class Type extends Modifiable implements Commentable {
         }
 
         methodList.add(method);
+        methodIndex = null;
 
         return method;
     }
 
     /** @return includes an enum constant */
     public Optional<? extends Commentable> getField(String name) {
-        Optional<? extends Commentable> result = fieldList.stream().filter(f -> f.getName().equals(name)).findAny();
-        if (result.isPresent()) {
-            return result;
+        Field field = lookupFieldByName(name);
+        if (field != null) {
+            return Optional.of(field);
         } else {
-            return enumConstList.stream().filter(f -> f.getName().equals(name)).findAny();
+            return Optional.ofNullable(lookupEnumConstByName(name));
         }
     }
 
@@ -229,6 +238,7 @@ public class Type extends Modifiable implements Commentable {
     public Field createField() {
         Field field = new Field();
         fieldList.add(field);
+        fieldIndex = null;
 
         return field;
     }
@@ -250,6 +260,7 @@ public class Type extends Modifiable implements Commentable {
     public EnumConst createEnumConst() {
         EnumConst enumConst = new EnumConst();
         enumConstList.add(enumConst);
+        enumConstIndex = null;
 
         return enumConst;
     }
@@ -271,6 +282,7 @@ public class Type extends Modifiable implements Commentable {
     public Method createConstructor() {
         Method method = new Method();
         constructorList.add(method);
+        constructorIndex = null;
 
         return method;
     }
@@ -325,14 +337,16 @@ public class Type extends Modifiable implements Commentable {
      * @return DOCUMENT ME!
      */
     public Field lookupFieldByName(String name) {
-        for (Field f : fieldList) {
-
-            if (name.equals(f.getName())) {
-                return f;
-            }
+        if (fieldIndex == null) {
+            indexFields();
+        }
+        Field f = fieldIndex.get(name);
+        if (f != null && !name.equals(f.getName())) {
+            // renamed after indexed
+            f = indexFields().get(name);
         }
 
-        return null;
+        return f;
     }
 
     /**
@@ -343,14 +357,16 @@ public class Type extends Modifiable implements Commentable {
      * @return DOCUMENT ME!
      */
     public EnumConst lookupEnumConstByName(String name) {
-        for (EnumConst ec : enumConstList) {
-
-            if (name.equals(ec.getName())) {
-                return ec;
-            }
+        if (enumConstIndex == null) {
+            indexEnumConsts();
+        }
+        EnumConst ec = enumConstIndex.get(name);
+        if (ec != null && !name.equals(ec.getName())) {
+            // renamed after indexed
+            ec = indexEnumConsts().get(name);
         }
 
-        return null;
+        return ec;
     }
 
     /**
@@ -361,14 +377,17 @@ public class Type extends Modifiable implements Commentable {
      * @return a method if found, otherwise null.
      */
     public Method lookupConstructor(List<Parameter> params) {
-        for (Method m : constructorList) {
-
-            if (m.matchesParams(params)) {
-                return m;
-            }
+        if (constructorIndex == null) {
+            indexConstructors();
+        }
+        String key = signatureKey(null, params);
+        Method m = constructorIndex.get(key);
+        if (m != null && !m.matchesParams(params)) {
+            // parameters changed after indexed
+            m = indexConstructors().get(key);
         }
 
-        return null;
+        return m;
     }
 
     /**
@@ -381,17 +400,67 @@ public class Type extends Modifiable implements Commentable {
      */
     public Method lookupMethodByName(String name, List<Parameter> params) {
 logger.finer(methodList.toString());
-        for (Method m : methodList) {
+        if (methodIndex == null) {
+            indexMethods();
+        }
+        String key = signatureKey(name, params);
+        Method m = methodIndex.get(key);
+        if (m != null && (!name.equals(m.getName()) || !m.matchesParams(params))) {
+            // renamed or parameters changed after indexed
+            m = indexMethods().get(key);
+        }
 
-            if (name.equals(m.getName())) {
+        return m;
+    }
 
-                if (m.matchesParams(params)) {
-                    return m;
-                }
-            }
-        }
+    /*
+     * indexes keep the first member of the same key as the former linear scans did.
+     * members are expected to be named and given parameters before they are
+     * looked up, as parsers and readers do.
+     */
 
-        return null;
+    /** */
+    private Map<String, Field> indexFields() {
+        fieldIndex = new HashMap<>();
+        fieldList.forEach(f -> fieldIndex.putIfAbsent(f.getName(), f));
+        return fieldIndex;
+    }
+
+    /** */
+    private Map<String, EnumConst> indexEnumConsts() {
+        enumConstIndex = new HashMap<>();
+        enumConstList.forEach(ec -> enumConstIndex.putIfAbsent(ec.getName(), ec));
+        return enumConstIndex;
+    }
+
+    /** */
+    private Map<String, Method> indexConstructors() {
+        constructorIndex = new HashMap<>();
+        constructorList.forEach(m -> constructorIndex.putIfAbsent(signatureKey(null, m.getParameterList()), m));
+        return constructorIndex;
+    }
+
+    /** */
+    private Map<String, Method> indexMethods() {
+        methodIndex = new HashMap<>();
+        methodList.forEach(m -> methodIndex.putIfAbsent(signatureKey(m.getName(), m.getParameterList()), m));
+        return methodIndex;
+    }
+
+    /**
+     * @param name null for a constructor
+     * @return a key of the name and the parameter types in order
+     */
+    private static String signatureKey(String name, List<Parameter> params) {
+        StringBuilder sb = new StringBuilder();
+        if (name != null) {
+            sb.append(name);
+        }
+        sb.append('(');
+        for (Parameter p : params) {
+            sb.append(p.getType()).append(',');
+        }
+        return sb.append(')').toString();
     }
 
     /**
@@ -442,6 +511,27 @@ logger.finer(methodList.toString());
         this.typeParameters = typeParameters;
     }
 
+    /**
+     * Discards everything parsed so far, the name and the package are kept.
+     * used when a parser gives up a page half way and parses it again.
+     */
+    public void clear() {
+        setModifiers(0);
+        superType = null;
+        implementsList.clear();
+        methodList.clear();
+        fieldList.clear();
+        enumConstList.clear();
+        constructorList.clear();
+        methodIndex = null;
+        constructorIndex = null;
+        fieldIndex = null;
+        enumConstIndex = null;
+        comment = null;
+        innerTypeList.clear();
+        typeParameters = null;
+    }
+
     /** class */
     public static final String LABEL_CLASS = "class";
     /** interface */
@@ -16,11 +16,19 @@
 
 package org.codavaj.type;
 
-import java.util.ArrayList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
@@ -33,13 +41,36 @@ import org.codavaj.type.reflection.SingleJarClassLoader;
 
 /**
  * A container for Types.
+ * <p>
+ * types may be created by many threads at once. lists returned are sorted
+ * snapshots built on demand and shared until a type or a package is added.
+ * </p>
  */
 public class TypeFactory {
 
     private static final Logger logger = Logger.getLogger(TypeFactory.class.getName());
 
-    private Map<String, Type> types = new TreeMap<>();
-    private Map<String, Package> packages = new TreeMap<>();
+    private final Map<String, Type> types = new ConcurrentHashMap<>();
+    private final Map<String, Package> packages = new ConcurrentHashMap<>();
+
+    /** bumped after a type or a package is added */
+    private final AtomicLong modifications = new AtomicLong();
+
+    /** a sorted list valid while no type or package is added */
+    private static final class Snapshot<T> {
+        final long modification;
+        final List<T> list;
+        Snapshot(long modification, List<T> list) {
+            this.modification = modification;
+            this.list = list;
+        }
+    }
+
+    /** */
+    private volatile Snapshot<Type> typeSnapshot;
+
+    /** */
+    private volatile Snapshot<Package> packageSnapshot;
 
     /**
      * Creates a new TypeFactory object.
@@ -48,16 +79,22 @@ public class TypeFactory {
         packages.put(Package.defaultPackageName, new Package(Package.defaultPackageName));
     }
 
+    /** @return the package, created if absent */
+    private Package getOrCreatePackage(String name) {
+        Package pckg = packages.get(name);
+        if (pckg == null) {
+            pckg = packages.computeIfAbsent(name, Package::new);
+            modifications.incrementAndGet();
+        }
+        return pckg;
+    }
+
     /** link packages to themselves hierarchically */
     private void linkPackage(Package pckg) {
         while( !Package.defaultPackageName.equals(pckg.getName())) {
             String parentName = pckg.getParentPackageName();
 
-            Package parentPckg = packages.get(parentName);
-            if (parentPckg == null) {
-                parentPckg = new Package( parentName );
-                packages.put(parentPckg.getName(), parentPckg);
-            }
+            Package parentPckg = getOrCreatePackage(parentName);
             parentPckg.addPackage(pckg);
             pckg.setParentPackage(parentPckg);
 
@@ -68,11 +105,7 @@ public class TypeFactory {
 
     /** link the type to it's package and vice versa */
     private Package linkPackage(Type type) {
-        Package pckg = packages.get(type.getPackageName());
-        if ( pckg == null ) {
-            pckg = new Package( type.getPackageName());
-            packages.put(pckg.getName(), pckg);
-        }
+        Package pckg = getOrCreatePackage(type.getPackageName());
         type.setPackage(pckg);
         pckg.addType(type);
 
@@ -92,55 +125,81 @@ public class TypeFactory {
      *
      * @see Type#getTypeName()
      */
-    public synchronized Type createType(String typename) {
+    public Type createType(String typename) {
         Type type = types.get(typename);
 
         if (type == null) {
-            type = new Type();
-            type.setTypeName(typename);
-            types.put(typename, type);
-
-            linkPackage( type );
+            // linked before other threads see it
+            type = types.computeIfAbsent(typename, k -> {
+                Type t = new Type();
+                t.setTypeName(k);
+                linkPackage(t);
+                return t;
+            });
+            modifications.incrementAndGet();
         }
 
         return type;
     }
 
-    protected synchronized void addType( Type t ) {
+    protected void addType( Type t ) {
         if ( t != null ) {
-            types.put(t.getTypeName(), t);
             linkPackage(t);
+            types.put(t.getTypeName(), t);
+            modifications.incrementAndGet();
         }
     }
 
     /**
      * Lookup a Type given it's fully qualified Type name.
      *
-     * @return a Type with the given fully qualified name, or null if not found.
+     * @return an unmodifiable view of Types by their fully qualified names.
      * @see Type#getTypeName()
      */
     public Map<String, Type> getTypeMap() {
-        return types;
+        return Collections.unmodifiableMap(types);
     }
 
     /**
-     * Return the list of all Types in the container. The Types are not sorted in
-     * any way.
+     * Return the list of all Types in the container sorted by their names.
      *
-     * @return the list of all Types.
+     * @return an unmodifiable list of all Types, not updated by Types added later.
      */
     public List<Type> getTypes() {
-        return new ArrayList<>(types.values());
+        Snapshot<Type> snapshot = typeSnapshot;
+        long modification = modifications.get();
+        if (snapshot == null || snapshot.modification != modification) {
+            snapshot = new Snapshot<>(modification, types.values().stream()
+                    .sorted(Comparator.comparing(Type::getTypeName)).toList());
+            typeSnapshot = snapshot;
+        }
+        return snapshot.list;
+    }
+
+    /**
+     * Return a spliterator over all Types for parallel traversal, e.g.
+     * {@code StreamSupport.stream(tf.spliterator(), true)}.
+     *
+     * @return a sized spliterator over {@link #getTypes()}.
+     */
+    public Spliterator<Type> spliterator() {
+        return getTypes().spliterator();
     }
 
     /**
-     * Return the list of all Packages in the container. The Packages are not
-     * sorted in any way.
+     * Return the list of all Packages in the container sorted by their names.
      *
-     * @return the list of all Packages.
+     * @return an unmodifiable list of all Packages, not updated by Packages added later.
      */
     public List<Package> getPackages() {
-        return new ArrayList<>(packages.values());
+        Snapshot<Package> snapshot = packageSnapshot;
+        long modification = modifications.get();
+        if (snapshot == null || snapshot.modification != modification) {
+            snapshot = new Snapshot<>(modification, packages.values().stream()
+                    .sorted(Comparator.comparing(Package::getName)).toList());
+            packageSnapshot = snapshot;
+        }
+        return snapshot.list;
     }
 
     /**
@@ -235,17 +294,45 @@ public class TypeFactory {
         this.fqnm = fqnm;
     }
 
+    /** @return nullable */
+    public FullyQualifiedNameMap getFullyQualifiedNameMap() {
+        return fqnm;
+    }
+
+    /**
+     * Load a TypeFactory saved by {@link #write(OutputStream)}.
+     *
+     * @param is a saved TypeFactory, not closed
+     * @return a linked TypeFactory
+     * @throws java.io.StreamCorruptedException not a saved TypeFactory or a different version
+     */
+    public static TypeFactory getInstance(InputStream is) throws IOException {
+        return new TypeInputStream(new BufferedInputStream(is)).readTypeFactory();
+    }
+
+    /**
+     * Save all types and the fully qualified name map in a compact binary form.
+     *
+     * @param os not closed
+     * @see TypeOutputStream
+     */
+    public void write(OutputStream os) throws IOException {
+        new TypeOutputStream(new BufferedOutputStream(os)).writeTypeFactory(this);
+    }
+
     /**
      * @param type anything
      * @return fully qualified name, returns self if there is not a fully qualified name.
      */
     public String getFullyQualifiedName(String type) {
-        type = type.replaceAll("<[\\w\\.\\[\\]\\$\\_\\s,\\*\\?]+>", "");
-        String array = "";
-        if (type.indexOf("[]") > 0) {
-            array = type.substring(type.indexOf("[]"));
-            type = type.replace("[]", "");
-        }
+        return fqnm.resolve("", type, this::resolve);
+    }
+
+    /** */
+    private String resolve(String raw) {
+        TypeReference reference = TypeReference.parse(raw);
+        String type = reference.getName();
+        String array = reference.getArraySuffix();
         String result;
         if (type.indexOf(".") > 0) {
             if (fqnm.containsValue(type)) {
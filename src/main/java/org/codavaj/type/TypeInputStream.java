@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.type;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.codavaj.process.docparser.FullyQualifiedNameMap;
+
+
+/**
+ * Reads models written by {@link TypeOutputStream}.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class TypeInputStream extends DataInputStream {
+
+    /** strings in order of their first occurrence */
+    private final List<String> strings = new ArrayList<>();
+
+    /** types of the factory being read, inner types written by name are looked up in this */
+    private Map<String, Type> shared;
+
+    /** */
+    public TypeInputStream(InputStream is) {
+        super(is);
+    }
+
+    /** reads an unsigned variable length integer */
+    public int readCount() throws IOException {
+        int count = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readUnsignedByte();
+            count |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return count;
+            }
+        }
+        throw new StreamCorruptedException("count too long");
+    }
+
+    /** @return nullable */
+    public String readString() throws IOException {
+        int number = readCount();
+        if (number == 0) {
+            return null;
+        } else if (number == 1) {
+            byte[] bytes = new byte[readCount()];
+            readFully(bytes);
+            String string = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(string);
+            return string;
+        } else if (number - 2 < strings.size()) {
+            return strings.get(number - 2);
+        } else {
+            throw new StreamCorruptedException("unknown string #" + (number - 2));
+        }
+    }
+
+    /** @return nullable */
+    public List<String> readStrings() throws IOException {
+        int size = readCount();
+        if (size == 0) {
+            return null;
+        }
+        List<String> list = new ArrayList<>(size - 1);
+        for (int i = 0; i < size - 1; i++) {
+            list.add(readString());
+        }
+        return list;
+    }
+
+    /**
+     * reads a type and its members into the type.
+     *
+     * @param type members are added, usually a new one or a cleared one
+     */
+    public void readType(Type type) throws IOException {
+        type.setTypeName(readString());
+        type.setModifiers(readCount());
+        type.setTypeParameters(readString());
+        type.setSuperType(readString());
+        List<String> implementsList = readStrings();
+        if (implementsList != null) {
+            type.getImplementsList().addAll(implementsList);
+        }
+        type.setComment(readStrings());
+
+        int size = readCount();
+        for (int i = 0; i < size; i++) {
+            readMethod(type.createMethod());
+        }
+        size = readCount();
+        for (int i = 0; i < size; i++) {
+            readMethod(type.createConstructor());
+        }
+        size = readCount();
+        for (int i = 0; i < size; i++) {
+            readField(type.createField());
+        }
+        size = readCount();
+        for (int i = 0; i < size; i++) {
+            EnumConst enumConst = type.createEnumConst();
+            enumConst.setName(readString());
+            enumConst.setComment(readStrings());
+        }
+        size = readCount();
+        for (int i = 0; i < size; i++) {
+            if (readUnsignedByte() == 0) {
+                readType(type.createInnerType());
+            } else {
+                String typeName = readString();
+                Type innerType = shared != null ? shared.get(typeName) : null;
+                if (innerType == null) {
+                    throw new StreamCorruptedException("unknown type: " + typeName);
+                }
+                type.getInnerTypeList().add(innerType);
+            }
+        }
+    }
+
+    /**
+     * reads a factory written by {@link TypeOutputStream#writeTypeFactory(TypeFactory)}.
+     * the factory is linked already.
+     *
+     * @throws StreamCorruptedException not a factory or a different version
+     */
+    public TypeFactory readTypeFactory() throws IOException {
+        if (readInt() != TypeOutputStream.MAGIC) {
+            throw new StreamCorruptedException("not a type factory");
+        }
+        int version = readCount();
+        if (version != TypeOutputStream.VERSION) {
+            throw new StreamCorruptedException("unsupported version: " + version);
+        }
+
+        TypeFactory typeFactory = new TypeFactory();
+        int size = readCount();
+        List<Type> types = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            types.add(typeFactory.createType(readString()));
+        }
+        shared = typeFactory.getTypeMap();
+        try {
+            for (Type type : types) {
+                readType(type);
+            }
+        } finally {
+            shared = null;
+        }
+
+        size = readCount();
+        if (size > 0) {
+            FullyQualifiedNameMap fqnm = new FullyQualifiedNameMap();
+            for (int i = 0; i < size - 1; i++) {
+                fqnm.put(readString(), readString());
+            }
+            typeFactory.setFullyQualifiedNameMap(fqnm);
+        }
+        return typeFactory;
+    }
+
+    /** */
+    private void readMethod(Method method) throws IOException {
+        method.setName(readString());
+        method.setModifiers(readCount());
+        method.setTypeParameters(readString());
+        if (readBoolean()) {
+            Parameter returnParameter = new Parameter();
+            readParameter(returnParameter);
+            method.setReturnParameter(returnParameter);
+        }
+        int size = readCount();
+        for (int i = 0; i < size; i++) {
+            Parameter parameter = new Parameter();
+            readParameter(parameter);
+            method.addParameter(parameter);
+        }
+        List<String> throwsList = readStrings();
+        if (throwsList != null) {
+            throwsList.forEach(method::addThrows);
+        }
+        method.setComment(readStrings());
+        method.setDefaultValue(readString());
+    }
+
+    /** */
+    private void readParameter(Parameter parameter) throws IOException {
+        parameter.setName(readString());
+        parameter.setModifiers(readCount());
+        parameter.setType(readString());
+        parameter.setTypeArgumentList(readString());
+        parameter.setArray(readBoolean());
+        parameter.setDegree(readCount());
+    }
+
+    /** */
+    private void readField(Field field) throws IOException {
+        readParameter(field);
+        field.setValue(readValue());
+        field.setComment(readStrings());
+    }
+
+    /** @see TypeOutputStream#writeValue(Object) */
+    private Object readValue() throws IOException {
+        int tag = readUnsignedByte();
+        switch (tag) {
+        case 0:
+            return null;
+        case 's':
+            return readString();
+        case 'Z':
+            return readBoolean();
+        case 'B':
+            return readByte();
+        case 'C':
+            return readChar();
+        case 'D':
+            return readDouble();
+        case 'F':
+            return readFloat();
+        case 'I':
+            return readInt();
+        case 'J':
+            return readLong();
+        case 'S':
+            return readShort();
+        default:
+            throw new StreamCorruptedException("unknown value tag: " + tag);
+        }
+    }
+}
+
+/* */
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.type;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.codavaj.process.docparser.FullyQualifiedNameMap;
+
+
+/**
+ * Writes models in a compact binary form, read by {@link TypeInputStream}.
+ * <p>
+ * counts are unsigned variable length integers. a string is written only
+ * at its first occurrence in a stream, later ones refer to it by number,
+ * so type names and modifiers repeated all over a model cost a few bytes.
+ * </p>
+ * <p>
+ * a whole {@link TypeFactory} is written as
+ * <pre>
+ * magic "CDTF", version
+ * count, type names
+ * types
+ * count + 1, pairs of the fully qualified name map by keys (0 means no map)
+ * </pre>
+ * packages are not written, those are made from type names again.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class TypeOutputStream extends DataOutputStream {
+
+    /** "CDTF" */
+    public static final int MAGIC = 0x43445446;
+
+    /** increment when the format or the model changes */
+    public static final int VERSION = 1;
+
+    /** string, its number */
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /** types of the factory being written, inner types in this are written by name */
+    private Map<String, Type> shared;
+
+    /** */
+    public TypeOutputStream(OutputStream os) {
+        super(os);
+    }
+
+    /** writes an unsigned variable length integer */
+    public void writeCount(int count) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("negative: " + count);
+        }
+        while ((count & ~0x7f) != 0) {
+            writeByte((count & 0x7f) | 0x80);
+            count >>>= 7;
+        }
+        writeByte(count);
+    }
+
+    /**
+     * 0 is null, 1 is a new string followed by its utf-8 bytes, n is the (n - 2)th string.
+     * @param string nullable
+     */
+    public void writeString(String string) throws IOException {
+        if (string == null) {
+            writeCount(0);
+            return;
+        }
+        Integer number = strings.get(string);
+        if (number != null) {
+            writeCount(number + 2);
+        } else {
+            strings.put(string, strings.size());
+            writeCount(1);
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeCount(bytes.length);
+            write(bytes);
+        }
+    }
+
+    /**
+     * 0 is null, otherwise the size + 1 followed by elements.
+     * @param list nullable
+     */
+    public void writeStrings(List<String> list) throws IOException {
+        if (list == null) {
+            writeCount(0);
+            return;
+        }
+        writeCount(list.size() + 1);
+        for (String string : list) {
+            writeString(string);
+        }
+    }
+
+    /**
+     * writes a type and its members, inner types are written recursively.
+     * the package is not written, it is given by the type name.
+     */
+    public void writeType(Type type) throws IOException {
+        writeString(type.getTypeName());
+        writeCount(type.getModifiers());
+        writeString(type.getTypeParameters());
+        writeString(type.getSuperType());
+        writeStrings(type.getImplementsList());
+        writeStrings(type.getComment());
+
+        writeCount(type.getMethodList().size());
+        for (Method method : type.getMethodList()) {
+            writeMethod(method);
+        }
+        writeCount(type.getConstructorList().size());
+        for (Method constructor : type.getConstructorList()) {
+            writeMethod(constructor);
+        }
+        writeCount(type.getFieldList().size());
+        for (Field field : type.getFieldList()) {
+            writeField(field);
+        }
+        writeCount(type.getEnumConstList().size());
+        for (EnumConst enumConst : type.getEnumConstList()) {
+            writeString(enumConst.getName());
+            writeStrings(enumConst.getComment());
+        }
+        writeCount(type.getInnerTypeList().size());
+        for (Type innerType : type.getInnerTypeList()) {
+            if (shared != null && shared.get(innerType.getTypeName()) == innerType) {
+                writeByte(1);
+                writeString(innerType.getTypeName());
+            } else {
+                writeByte(0);
+                writeType(innerType);
+            }
+        }
+    }
+
+    /**
+     * writes all types of a factory and its fully qualified name map.
+     * an inner type linked to its enclosing type is written once, the same
+     * instance is shared again by {@link TypeInputStream#readTypeFactory()}.
+     */
+    public void writeTypeFactory(TypeFactory typeFactory) throws IOException {
+        writeInt(MAGIC);
+        writeCount(VERSION);
+
+        List<Type> types = typeFactory.getTypes();
+        writeCount(types.size());
+        for (Type type : types) {
+            writeString(type.getTypeName());
+        }
+        shared = typeFactory.getTypeMap();
+        try {
+            for (Type type : types) {
+                writeType(type);
+            }
+        } finally {
+            shared = null;
+        }
+
+        FullyQualifiedNameMap fqnm = typeFactory.getFullyQualifiedNameMap();
+        if (fqnm == null) {
+            writeCount(0);
+        } else {
+            // sorted, the same types are the same bytes whichever order they are parsed in
+            Map<String, String> entries = new TreeMap<>(fqnm);
+            writeCount(entries.size() + 1);
+            for (Entry<String, String> entry : entries.entrySet()) {
+                writeString(entry.getKey());
+                writeString(entry.getValue());
+            }
+        }
+        flush();
+    }
+
+    /** */
+    private void writeMethod(Method method) throws IOException {
+        writeString(method.getName());
+        writeCount(method.getModifiers());
+        writeString(method.getTypeParameters());
+        writeBoolean(method.getReturnParameter() != null);
+        if (method.getReturnParameter() != null) {
+            writeParameter(method.getReturnParameter());
+        }
+        writeCount(method.getParameterList().size());
+        for (Parameter parameter : method.getParameterList()) {
+            writeParameter(parameter);
+        }
+        writeStrings(method.getThrowsList());
+        writeStrings(method.getComment());
+        writeString(method.getDefaultValue());
+    }
+
+    /** */
+    private void writeParameter(Parameter parameter) throws IOException {
+        writeString(parameter.getName());
+        writeCount(parameter.getModifiers());
+        writeString(parameter.getType());
+        writeString(parameter.getTypeArgumentList());
+        writeBoolean(parameter.isArray());
+        writeCount(parameter.getDegree());
+    }
+
+    /** */
+    private void writeField(Field field) throws IOException {
+        writeParameter(field);
+        writeValue(field.getValue());
+        writeStrings(field.getComment());
+    }
+
+    /**
+     * a constant value is tagged by its jvm signature letter, 0 is null.
+     * values other than primitive wrappers and strings are not constants
+     * in the source, those are written as null.
+     */
+    private void writeValue(Object value) throws IOException {
+        if (value instanceof String) {
+            writeByte('s');
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            writeByte('Z');
+            writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            writeByte('B');
+            writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            writeByte('C');
+            writeChar((Character) value);
+        } else if (value instanceof Double) {
+            writeByte('D');
+            writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            writeByte('F');
+            writeFloat((Float) value);
+        } else if (value instanceof Integer) {
+            writeByte('I');
+            writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            writeByte('J');
+            writeLong((Long) value);
+        } else if (value instanceof Short) {
+            writeByte('S');
+            writeShort((Short) value);
+        } else {
+            writeByte(0);
+        }
+    }
+}
+
+/* */
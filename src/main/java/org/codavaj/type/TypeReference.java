@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.type;
+
+
+/**
+ * A type reference as written in a signature, e.g. "java.util.List&lt;String&gt;[]".
+ * <p>
+ * split into the name, the type arguments and the array dimensions in a single
+ * pass w/o regex. type arguments may be nested.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class TypeReference {
+
+    /** e.g. "java.util.List" */
+    private final String name;
+
+    /** e.g. "&lt;String&gt;", null when not parameterized */
+    private final String typeArguments;
+
+    /** e.g. 1 for "String[]" */
+    private final int dimensions;
+
+    /** */
+    private TypeReference(String name, String typeArguments, int dimensions) {
+        this.name = name;
+        this.typeArguments = typeArguments;
+        this.dimensions = dimensions;
+    }
+
+    /**
+     * @param raw a type reference as written
+     */
+    public static TypeReference parse(String raw) {
+        StringBuilder name = new StringBuilder(raw.length());
+        StringBuilder typeArguments = null;
+        int depth = 0;
+        int dimensions = 0;
+
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '<') {
+                if (typeArguments == null) {
+                    typeArguments = new StringBuilder();
+                }
+                depth++;
+                typeArguments.append(c);
+            } else if (depth > 0) {
+                if (c == '>') {
+                    depth--;
+                }
+                typeArguments.append(c);
+            } else if (c == ']') {
+                dimensions++;
+            } else if (c != '[') {
+                name.append(c);
+            }
+        }
+
+        return new TypeReference(name.toString(), typeArguments != null ? typeArguments.toString() : null, dimensions);
+    }
+
+    /** @return the name w/o type arguments and array brackets, e.g. "java.util.List" */
+    public String getName() {
+        return name;
+    }
+
+    /** @return e.g. "&lt;String&gt;", null when not parameterized */
+    public String getTypeArguments() {
+        return typeArguments;
+    }
+
+    /** @return number of array dimensions */
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /** @return e.g. "[][]", empty when not an array */
+    public String getArraySuffix() {
+        return "[]".repeat(dimensions);
+    }
+}
+
+/* */
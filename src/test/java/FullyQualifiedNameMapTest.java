@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.codavaj.process.docparser.FullyQualifiedNameMap;
+import org.codavaj.type.Type;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * FullyQualifiedNameMapTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class FullyQualifiedNameMapTest {
+
+    static Type type(String name) {
+        Type type = new Type();
+        type.setTypeName(name);
+        return type;
+    }
+
+    @Test
+    void testReverseIndex() {
+        FullyQualifiedNameMap fqnm = new FullyQualifiedNameMap();
+        assertTrue(fqnm.containsValue("int"));
+        assertFalse(fqnm.containsValue("a.Foo"));
+
+        fqnm.put("Foo", "a.Foo");
+        fqnm.put("a.Foo", "a.Foo");
+        assertTrue(fqnm.containsValue("a.Foo"));
+
+        // overwritten, still mapped by the other key
+        assertEquals("a.Foo", fqnm.put("Foo", "b.Foo"));
+        assertTrue(fqnm.containsValue("a.Foo"));
+        assertTrue(fqnm.containsValue("b.Foo"));
+
+        // the last key is removed
+        assertEquals("a.Foo", fqnm.remove("a.Foo"));
+        assertFalse(fqnm.containsValue("a.Foo"));
+        assertNull(fqnm.remove("a.Foo"));
+        assertNull(fqnm.remove(1));
+
+        fqnm.putAll(Map.of("Bar", "c.Bar"));
+        assertTrue(fqnm.containsValue("c.Bar"));
+        assertEquals(Set.of("a.Foo", "b.Foo"), fqnm.getFullyQualifiedNames("Foo"));
+
+        fqnm.clear();
+        assertFalse(fqnm.containsValue("b.Foo"));
+        assertFalse(fqnm.containsValue("c.Bar"));
+        assertFalse(fqnm.containsValue("int"));
+        assertEquals(Set.of(), fqnm.getFullyQualifiedNames("Foo"));
+
+        // the index agrees with the values after all
+        fqnm.add("d.Foo");
+        assertEquals(Set.of("d.Foo"), Set.copyOf(fqnm.values()));
+        assertTrue(fqnm.containsValue("d.Foo"));
+    }
+
+    @Test
+    void testNestedName() {
+        FullyQualifiedNameMap fqnm = new FullyQualifiedNameMap();
+        fqnm.add("a.Map$Entry");
+
+        // the enclosing type is not known yet
+        assertEquals("Entry", fqnm.guess("Entry"));
+
+        fqnm.add("a.Map");
+        assertEquals("a.Map$Entry", fqnm.guess("Entry"));
+        // not nested in a known type
+        assertEquals("Map$Entry", fqnm.guess("Map$Entry"));
+
+        // every enclosing level
+        fqnm.add("b.Outer");
+        fqnm.add("b.Outer$Mid");
+        fqnm.add("b.Outer$Mid$Inner");
+        assertEquals("b.Outer$Mid$Inner", fqnm.guess("Inner"));
+        assertEquals("b.Outer$Mid$Inner", fqnm.guess("Mid$Inner"));
+        assertEquals("b.Outer$Mid", fqnm.guess("Mid"));
+
+        // not found by a part which is not a whole name
+        assertEquals("ner", fqnm.guess("ner"));
+
+        // the enclosing type is removed
+        fqnm.remove("Map");
+        assertEquals("Entry", fqnm.guess("Entry"));
+
+        // java.lang comes first
+        assertEquals("java.lang.String", fqnm.guess("String"));
+        assertEquals("java.lang.Thread$State", fqnm.guess("Thread$State"));
+        assertEquals("java.lang.Thread$State", fqnm.get("Thread$State"));
+    }
+
+    @Test
+    void testSamePackage() {
+        FullyQualifiedNameMap fqnm = new FullyQualifiedNameMap();
+        fqnm.add("a.Foo");
+        fqnm.add("b.Foo");
+
+        assertEquals("a.Foo", fqnm.toFullyQualifiedName(type("a.Bar"), "Foo"));
+        assertEquals("b.Foo", fqnm.toFullyQualifiedName(type("b.Bar"), "Foo"));
+        assertEquals("b.Foo", fqnm.toFullyQualifiedName(type("c.Bar"), "Foo"));
+    }
+
+    @Test
+    void testLearning() throws Exception {
+        FullyQualifiedNameMap fqnm = new FullyQualifiedNameMap();
+        fqnm.add("c.Bar");
+        fqnm.add("d.Baz");
+
+        // two types learn colliding names at once, neither sees the other's
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (String[] c : new String[][] { { "c.Bar", "x.List" }, { "d.Baz", "y.List" } }) {
+                futures.add(executor.submit(() -> {
+                    Type type = type(c[0]);
+                    fqnm.startLearning();
+                    try {
+                        return List.of(fqnm.toFullyQualifiedName(type, c[1]), fqnm.toFullyQualifiedName(type, "List"), fqnm.toFullyQualifiedName(type, "String"));
+                    } finally {
+                        assertEquals(List.of(c[1], "java.lang.String"), new ArrayList<>(fqnm.stopLearning()));
+                    }
+                }));
+            }
+            assertEquals(List.of("x.List", "x.List", "java.lang.String"), futures.get(0).get());
+            assertEquals(List.of("y.List", "y.List", "java.lang.String"), futures.get(1).get());
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(fqnm.containsKey("List"));
+        assertFalse(fqnm.containsKey("String"));
+
+        // not shared until added
+        assertEquals("List", fqnm.toFullyQualifiedName(type("c.Bar"), "List"));
+        fqnm.add("x.List");
+        assertEquals("x.List", fqnm.toFullyQualifiedName(type("c.Bar"), "List"));
+        assertEquals("x.List", fqnm.toFullyQualifiedName(type("d.Baz"), "List"));
+    }
+}
+
+/* */
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+
+import org.codavaj.process.docparser.DocParser;
+import org.codavaj.type.TypeFactory;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * ParseCacheTest. types read from the cache are the same as ones parsed.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ParseCacheTest {
+
+    @TempDir
+    Path cache;
+
+    static TypeFactory parse(String version, Path cache) throws Exception {
+        DocParser dp = new DocParser();
+        dp.setJavadocDirName(String.format("src/test/resources/javadoc/%s/apidocs", version));
+        dp.setCacheDirName(cache.toString());
+        return dp.process();
+    }
+
+    static byte[] bytes(TypeFactory tf) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        tf.write(baos);
+        return baos.toByteArray();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"8/en", "13/en", "13/jp"})
+    void test(String version) throws Exception {
+        TypeFactory cold = parse(version, cache);
+        TypeFactory warm = parse(version, cache);
+
+        // names learned by cached types are in the map again
+        assertEquals("java.io.IOException", warm.getFullyQualifiedName("IOException"));
+        assertArrayEquals(bytes(cold), bytes(warm));
+    }
+}
+
+/* */
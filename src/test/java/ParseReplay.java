@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.codavaj.process.docparser.ParseRecorder;
+import org.codavaj.process.docparser.ParserUtils;
+import org.codavaj.type.Type;
+import org.codavaj.type.TypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Replays a parse workload recorded by {@link ParseRecorder}.
+ * <p>
+ * record with {@code -Dcodavaj.capture.dir=dir}, then run this
+ * with {@code -Dcodavaj.replay.dir=dir}.
+ * </p>
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dcodavaj.file.encoding=UTF-8")
+public class ParseReplay {
+
+    /** recorded pages are written in utf-8 */
+    private String dir;
+
+    private ParserUtils parserUtil;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = System.getProperty("codavaj.replay.dir", "tmp/capture");
+        System.setProperty("codavaj.file.encoding", "UTF-8");
+        parserUtil = ParserUtils.factory(dir);
+    }
+
+    @Benchmark
+    public void factory(Blackhole blackhole) throws Exception {
+        blackhole.consume(ParserUtils.factory(dir));
+    }
+
+    @Benchmark
+    public void processTypes(Blackhole blackhole) throws Exception {
+        TypeFactory typeFactory = new TypeFactory();
+        for (String typeName : parserUtil.getClasses()) {
+            Type type = typeFactory.createType(typeName);
+            parserUtil.processType(type);
+        }
+        blackhole.consume(typeFactory);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(ParseReplay.class.getSimpleName())
+            .jvmArgsAppend("-Dcodavaj.replay.dir=" + System.getProperty("codavaj.replay.dir", "tmp/capture"))
+            .build();
+        new Runner(options).run();
+    }
+}
+
+/* */
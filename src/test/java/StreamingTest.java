@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.codavaj.process.docparser.DocParser;
+import org.codavaj.type.Type;
+import org.codavaj.type.TypeFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+
+/**
+ * StreamingTest. types extracted by events or by many threads are the same as
+ * ones extracted from whole pages serially.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class StreamingTest {
+
+    static TypeFactory parse(String version, boolean streaming) throws Exception {
+        return parse(version, streaming, 1);
+    }
+
+    static TypeFactory parse(String version, boolean streaming, int threads) throws Exception {
+        DocParser dp = new DocParser();
+        dp.setJavadocDirName(String.format("src/test/resources/javadoc/%s/apidocs", version));
+        dp.setStreaming(streaming);
+        dp.setThreads(threads);
+        return dp.process();
+    }
+
+    static byte[] bytes(TypeFactory tf) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        tf.write(baos);
+        return baos.toByteArray();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"11/en", "12/en", "13/en", "11/jp", "12/jp", "13/jp"})
+    void test(String version) throws Exception {
+        TypeFactory dom = parse(version, false);
+
+        // the extractor falls back to the dom path silently, it is told by fine logs
+        Logger logger = Logger.getLogger("org.codavaj.process.docparser.ParserUtils8");
+        List<String> fallbacks = new CopyOnWriteArrayList<>();
+        Handler handler = new Handler() {
+            @Override public void publish(LogRecord record) {
+                if (record.getMessage().startsWith("not streamable") || record.getMessage().startsWith("streaming failed")) {
+                    fallbacks.add(record.getMessage());
+                }
+            }
+            @Override public void flush() {}
+            @Override public void close() {}
+        };
+        Level level = logger.getLevel();
+        logger.setLevel(Level.FINE);
+        logger.addHandler(handler);
+        TypeFactory streamed;
+        try {
+            streamed = parse(version, true);
+        } finally {
+            logger.removeHandler(handler);
+            logger.setLevel(level);
+        }
+        // Test4 is an annotation type, those are left to the dom path
+        assertEquals(List.of("not streamable: vavi.test.codavaj.Test4"), fallbacks);
+
+        Type type = streamed.getTypeMap().get("vavi.test.codavaj.Test2");
+        assertNotNull(type);
+        assertFalse(type.getMethodList().isEmpty());
+        assertNotNull(type.getMethodList().get(0).getComment());
+
+        assertArrayEquals(bytes(dom), bytes(streamed));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"8/en", "11/en", "13/jp"})
+    void testThreads(String version) throws Exception {
+        assertArrayEquals(bytes(parse(version, false, 1)), bytes(parse(version, false, 4)));
+    }
+}
+
+/* */
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.codavaj.process.docparser.DocParser;
+import org.codavaj.type.Package;
+import org.codavaj.type.Type;
+import org.codavaj.type.TypeFactory;
+import org.codavaj.type.TypeOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * TypeFactoryTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class TypeFactoryTest {
+
+    static byte[] bytes(TypeFactory tf) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        tf.write(baos);
+        return baos.toByteArray();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"6/en", "8/en", "13/jp"})
+    void testRoundTrip(String version) throws Exception {
+        DocParser dp = new DocParser();
+        dp.setJavadocDirName(String.format("src/test/resources/javadoc/%s/apidocs", version));
+        TypeFactory parsed = dp.process();
+
+        byte[] written = bytes(parsed);
+        TypeFactory read = TypeFactory.getInstance(new ByteArrayInputStream(written));
+
+        assertArrayEquals(written, bytes(read));
+        assertEquals(parsed.getTypeMap().keySet(), read.getTypeMap().keySet());
+        for (Type type : parsed.getTypes()) {
+            Type other = read.getTypeMap().get(type.getTypeName());
+            assertEquals(type.getMethodList().size(), other.getMethodList().size(), type.getTypeName());
+            assertEquals(type.getFieldList().size(), other.getFieldList().size(), type.getTypeName());
+            assertEquals(type.getInnerTypeList().size(), other.getInnerTypeList().size(), type.getTypeName());
+            assertEquals(type.getSuperType(), other.getSuperType(), type.getTypeName());
+        }
+        assertNotNull(read.getFullyQualifiedNameMap());
+        assertEquals(parsed.getFullyQualifiedNameMap(), read.getFullyQualifiedNameMap());
+    }
+
+    static List<String> names(List<Type> types) {
+        return types.stream().map(Type::getTypeName).toList();
+    }
+
+    @Test
+    void testSnapshot() {
+        TypeFactory tf = new TypeFactory();
+        tf.createType("b.Foo");
+        List<Type> types = tf.getTypes();
+        List<Package> packages = tf.getPackages();
+
+        // shared while nothing is added
+        assertSame(types, tf.getTypes());
+        assertSame(packages, tf.getPackages());
+        assertThrows(UnsupportedOperationException.class, () -> types.add(new Type()));
+        assertThrows(UnsupportedOperationException.class, () -> packages.clear());
+        assertThrows(UnsupportedOperationException.class, () -> tf.getTypeMap().clear());
+
+        // an existing type adds nothing
+        tf.createType("b.Foo");
+        assertSame(types, tf.getTypes());
+
+        tf.createType("a.b.Bar");
+        List<Type> added = tf.getTypes();
+        assertNotSame(types, added);
+        assertNotSame(packages, tf.getPackages());
+        assertEquals(List.of("b.Foo"), names(types));
+        assertEquals(List.of("a.b.Bar", "b.Foo"), names(added));
+        assertEquals(List.of("", "a", "a.b", "b"), tf.getPackages().stream().map(Package::getName).toList());
+        assertEquals(added.size(), tf.spliterator().getExactSizeIfKnown());
+    }
+
+    @Test
+    void testConcurrentCreate() throws Exception {
+        TypeFactory tf = new TypeFactory();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Type>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String name = "p" + (i % 10) + ".T" + (i % 40);
+                futures.add(executor.submit(() -> tf.createType(name)));
+            }
+            for (Future<Type> future : futures) {
+                Type type = future.get();
+                // one instance each, linked before it is seen
+                assertSame(type, tf.getTypeMap().get(type.getTypeName()));
+                assertSame(type, type.getPackage().getTypes().stream().filter(t -> t == type).findFirst().orElse(null));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(40, tf.getTypes().size());
+        assertEquals(11, tf.getPackages().size());
+    }
+
+    @Test
+    void testNotTypeFactory() throws Exception {
+        byte[] bytes = "<html></html>".getBytes();
+        assertThrows(StreamCorruptedException.class, () -> TypeFactory.getInstance(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void testOtherVersion() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (TypeOutputStream os = new TypeOutputStream(baos)) {
+            os.writeInt(TypeOutputStream.MAGIC);
+            os.writeCount(TypeOutputStream.VERSION + 1);
+            os.writeCount(0);
+            os.writeCount(0);
+        }
+        StreamCorruptedException e = assertThrows(StreamCorruptedException.class,
+                () -> TypeFactory.getInstance(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals("unsupported version: " + (TypeOutputStream.VERSION + 1), e.getMessage());
+    }
+}
+
+/* */
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+import org.codavaj.process.docparser.FullyQualifiedNameMap;
+import org.codavaj.type.Type;
+import org.codavaj.type.TypeReference;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+/**
+ * TypeReferenceTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class TypeReferenceTest {
+
+    @Test
+    void testParse() {
+        TypeReference reference = TypeReference.parse("java.util.List");
+        assertEquals("java.util.List", reference.getName());
+        assertNull(reference.getTypeArguments());
+        assertEquals(0, reference.getDimensions());
+        assertEquals("", reference.getArraySuffix());
+
+        reference = TypeReference.parse("String[][]");
+        assertEquals("String", reference.getName());
+        assertNull(reference.getTypeArguments());
+        assertEquals(2, reference.getDimensions());
+        assertEquals("[][]", reference.getArraySuffix());
+
+        reference = TypeReference.parse("List<? extends Number>[]");
+        assertEquals("List", reference.getName());
+        assertEquals("<? extends Number>", reference.getTypeArguments());
+        assertEquals("[]", reference.getArraySuffix());
+    }
+
+    @Test
+    void testNested() {
+        // the old regex removed the innermost level only, "java.util.Map<K, java.util.List>[][]"
+        TypeReference reference = TypeReference.parse("java.util.Map<K, java.util.List<V[]>>[][]");
+        assertEquals("java.util.Map", reference.getName());
+        assertEquals("<K, java.util.List<V[]>>", reference.getTypeArguments());
+        assertEquals(2, reference.getDimensions());
+        assertEquals("[][]", reference.getArraySuffix());
+
+        reference = TypeReference.parse("Map<String, Map<String, List<Integer>>>");
+        assertEquals("Map", reference.getName());
+        assertEquals("<String, Map<String, List<Integer>>>", reference.getTypeArguments());
+        assertEquals(0, reference.getDimensions());
+    }
+
+    @Test
+    void testResolveNested() {
+        FullyQualifiedNameMap fqnm = new FullyQualifiedNameMap();
+        fqnm.add("java.util.Map");
+        fqnm.add("java.util.List");
+        Type type = new Type();
+        type.setTypeName("a.Foo");
+
+        // the old regex left "Map<String, List>", which was not found
+        assertEquals("java.util.Map", fqnm.toFullyQualifiedName(type, "Map<String, List<Integer>>"));
+        assertEquals("java.util.List", fqnm.toFullyQualifiedName(type, "List<Map<String, List<Integer>>>"));
+    }
+}
+
+/* */
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+import java.util.List;
+
+import org.codavaj.type.EnumConst;
+import org.codavaj.type.Field;
+import org.codavaj.type.Method;
+import org.codavaj.type.Parameter;
+import org.codavaj.type.Type;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+/**
+ * TypeTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class TypeTest {
+
+    static Parameter parameter(String type) {
+        Parameter parameter = new Parameter();
+        parameter.setType(type);
+        return parameter;
+    }
+
+    static Method method(Type type, String name, String... types) {
+        Method method = type.createMethod();
+        method.setName(name);
+        for (String t : types) {
+            method.addParameter(parameter(t));
+        }
+        return method;
+    }
+
+    static Field field(Type type, String name) {
+        Field field = type.createField();
+        field.setName(name);
+        return field;
+    }
+
+    @Test
+    void testMethods() {
+        Type type = new Type();
+        type.setTypeName("a.Foo");
+        Method foo = method(type, "foo", "int");
+        Method fooString = method(type, "foo", "java.lang.String");
+        Method duplicate = method(type, "foo", "int");
+
+        assertSame(foo, type.lookupMethodByName("foo", List.of(parameter("int"))));
+        assertSame(fooString, type.lookupMethodByName("foo", List.of(parameter("java.lang.String"))));
+        assertNull(type.lookupMethodByName("foo", List.of()));
+        assertNull(type.lookupMethodByName("bar", List.of(parameter("int"))));
+
+        // created after indexed
+        Method bar = method(type, "bar", "int");
+        assertSame(bar, type.lookupMethodByName("bar", List.of(parameter("int"))));
+
+        // renamed after indexed, the stale hit rebuilds the index and the next one of the key is found
+        foo.setName("baz");
+        assertSame(duplicate, type.lookupMethodByName("foo", List.of(parameter("int"))));
+        assertSame(foo, type.lookupMethodByName("baz", List.of(parameter("int"))));
+
+        // parameters changed after indexed
+        fooString.getParameterList().get(0).setType("long");
+        assertNull(type.lookupMethodByName("foo", List.of(parameter("java.lang.String"))));
+        assertSame(fooString, type.lookupMethodByName("foo", List.of(parameter("long"))));
+
+        type.clear();
+        assertNull(type.lookupMethodByName("bar", List.of(parameter("int"))));
+    }
+
+    @Test
+    void testConstructors() {
+        Type type = new Type();
+        type.setTypeName("a.Foo");
+        Method none = type.createConstructor();
+        Method one = type.createConstructor();
+        one.addParameter(parameter("int"));
+
+        assertSame(none, type.lookupConstructor(List.of()));
+        assertSame(one, type.lookupConstructor(List.of(parameter("int"))));
+        assertNull(type.lookupConstructor(List.of(parameter("long"))));
+
+        // parameters changed after indexed
+        one.getParameterList().get(0).setType("long");
+        assertNull(type.lookupConstructor(List.of(parameter("int"))));
+        assertSame(one, type.lookupConstructor(List.of(parameter("long"))));
+
+        // not a method
+        assertNull(type.lookupMethodByName("Foo", List.of()));
+    }
+
+    @Test
+    void testFields() {
+        Type type = new Type();
+        type.setTypeName("a.Foo");
+        Field foo = field(type, "foo");
+        Field duplicate = field(type, "foo");
+        EnumConst red = type.createEnumConst();
+        red.setName("RED");
+
+        assertSame(foo, type.lookupFieldByName("foo"));
+        assertSame(red, type.lookupEnumConstByName("RED"));
+        assertNull(type.lookupFieldByName("RED"));
+        assertNull(type.lookupEnumConstByName("foo"));
+        assertSame(foo, type.getField("foo").get());
+        assertSame(red, type.getField("RED").get());
+        assertFalse(type.getField("bar").isPresent());
+
+        // created after indexed
+        Field bar = field(type, "bar");
+        EnumConst green = type.createEnumConst();
+        green.setName("GREEN");
+        assertSame(bar, type.lookupFieldByName("bar"));
+        assertSame(green, type.getField("GREEN").get());
+
+        // renamed after indexed
+        foo.setName("baz");
+        red.setName("BLUE");
+        assertSame(duplicate, type.lookupFieldByName("foo"));
+        assertSame(foo, type.lookupFieldByName("baz"));
+        assertNull(type.lookupEnumConstByName("RED"));
+        assertSame(red, type.lookupEnumConstByName("BLUE"));
+
+        type.clear();
+        assertNull(type.lookupFieldByName("bar"));
+        assertFalse(type.getField("GREEN").isPresent());
+    }
+}
+
+/* */
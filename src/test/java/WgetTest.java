@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.codavaj.Main;
+import org.codavaj.process.ProgressEvent;
+import org.codavaj.process.wget.CrawlScope;
+import org.codavaj.process.wget.FetchEngine;
+import org.codavaj.process.wget.HttpClientEngine;
+import org.codavaj.process.wget.HttpUnitEngine;
+import org.codavaj.process.wget.Wget;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.meterware.httpunit.HttpUnitOptions;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * WgetTest. javadoc in the test resources is served by an embedded http server.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class WgetTest {
+
+    static final Path root = Paths.get("src/test/resources/javadoc/8/en/apidocs");
+
+    static HttpServer server;
+
+    static final AtomicInteger notModified = new AtomicInteger();
+
+    /** paths answered by 503 */
+    static final Set<String> unavailable = ConcurrentHashMap.newKeySet();
+
+    /** paths requested */
+    static final List<String> requests = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    static void setup() throws IOException {
+        HttpUnitOptions.setExceptionsThrownOnScriptError(false);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestURI().getPath());
+            if (unavailable.contains(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            Path path = root.resolve(exchange.getRequestURI().getPath().substring(1)).normalize();
+            if (!path.startsWith(root) || !Files.isRegularFile(path)) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            String etag = "\"" + Files.size(path) + "-" + Files.getLastModifiedTime(path).toMillis() + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            String name = path.getFileName().toString();
+            exchange.getResponseHeaders().set("Content-Type",
+                    name.endsWith(".html") ? "text/html" : name.endsWith(".css") ? "text/css" : "application/octet-stream");
+            byte[] bytes = Files.readAllBytes(path);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.createContext("/slow/", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterAll
+    static void teardown() {
+        server.stop(0);
+    }
+
+    /** */
+    static void delete(Path dir) throws IOException {
+        if (Files.exists(dir)) {
+            try (Stream<Path> s = Files.walk(dir)) {
+                s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    /** @return relative paths of files under the dir */
+    static List<String> mirror(int threads, String dir) throws Exception {
+        return mirror(threads, dir, false);
+    }
+
+    /** @return relative paths of files under the dir */
+    static List<String> mirror(int threads, String dir, boolean incremental) throws Exception {
+        return mirror(threads, dir, incremental, new HttpUnitEngine());
+    }
+
+    /** @return relative paths of files under the dir */
+    static List<String> mirror(int threads, String dir, boolean incremental, FetchEngine engine) throws Exception {
+        Path out = Paths.get("tmp/wget", dir);
+        if (!incremental) {
+            delete(out);
+        }
+
+        List<ProgressEvent> events = new ArrayList<>();
+        Wget wget = new Wget();
+        wget.setRootUrl("http://localhost:" + server.getAddress().getPort() + "/");
+        wget.setJavadocDirName(out.toString());
+        wget.setThreads(threads);
+        wget.setConnectionsPerHost(2);
+        wget.setRetryCount(1);
+        wget.setRetryWait(0);
+        wget.setIncremental(incremental);
+        wget.setEngine(engine);
+        wget.addProgressListener(events::add);
+        wget.process();
+
+        assertFalse(events.isEmpty());
+        ProgressEvent last = events.get(events.size() - 1);
+        assertEquals(last.getTodo(), last.getDone());
+
+        try (Stream<Path> s = Files.walk(out)) {
+            return s.filter(Files::isRegularFile).map(p -> out.relativize(p).toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testConcurrent() throws Exception {
+        List<String> serial = mirror(1, "serial");
+        List<String> concurrent = mirror(4, "concurrent");
+
+        assertTrue(serial.contains("allclasses-frame.html"));
+        assertEquals(serial, concurrent);
+    }
+
+    @Test
+    void testHttpClientEngine() throws Exception {
+        List<String> httpunit = mirror(1, "httpunit");
+        List<String> httpclient = mirror(4, "httpclient", false, new HttpClientEngine());
+
+        assertEquals(httpunit, httpclient);
+    }
+
+    @Test
+    void testHttpClientEngineTimeout() throws Exception {
+        FetchEngine engine = new HttpClientEngine(Duration.ofMillis(100));
+        assertThrows(HttpTimeoutException.class,
+                () -> engine.fetch("http://localhost:" + server.getAddress().getPort() + "/slow/index.html", Map.of()));
+    }
+
+    @Test
+    void testParseNeeded() throws Exception {
+        Path out = Paths.get("tmp/wget/scoped");
+        delete(out);
+        Wget wget = new Wget();
+        wget.setRootUrl("http://localhost:" + server.getAddress().getPort() + "/");
+        wget.setJavadocDirName(out.toString());
+        wget.setScope(CrawlScope.parseNeeded());
+        wget.process();
+
+        List<String> scoped;
+        try (Stream<Path> s = Files.walk(out)) {
+            scoped = s.filter(Files::isRegularFile).map(p -> out.relativize(p).toString()).sorted().collect(Collectors.toList());
+        }
+        List<String> all = mirror(1, "all");
+
+        assertTrue(scoped.contains("allclasses-frame.html"));
+        assertTrue(scoped.contains("vavi/test/codavaj/Test1.html"));
+        assertFalse(scoped.contains("index-all.html"));
+        assertTrue(scoped.stream().noneMatch(p -> p.startsWith("index-files")));
+        assertFalse(scoped.contains("vavi/test/codavaj/class-use/Test1.html"));
+        assertTrue(all.containsAll(scoped));
+        assertTrue(scoped.size() < all.size());
+    }
+
+    @Test
+    void testClientErrorNotRetried() throws Exception {
+        Wget wget = new Wget();
+        wget.setRootUrl("http://localhost:" + server.getAddress().getPort() + "/missing/");
+        wget.setJavadocDirName("tmp/wget/missing");
+        wget.setRetryCount(5);
+        wget.setRetryWait(60000);
+        long start = System.currentTimeMillis();
+        wget.process();
+
+        assertTrue(System.currentTimeMillis() - start < 60000);
+        assertEquals(4, wget.getFailures().size());
+        assertTrue(wget.getFailures().keySet().stream().allMatch(url -> url.contains("/missing/")));
+    }
+
+    @Test
+    void testPipeline() throws Exception {
+        delete(Paths.get("tmp/wget/pipeline"));
+        Main.main(new String[] { "pipeline", "http://localhost:" + server.getAddress().getPort() + "/", "tmp/wget/pipeline" });
+
+        for (int i = 1; i <= 5; i++) {
+            String name = "vavi/test/codavaj/Test" + i + ".java";
+            assertArrayEquals(Files.readAllBytes(Paths.get("src/test/resources/codavaj/8/en", name)),
+                    Files.readAllBytes(Paths.get("tmp/wget/pipeline", name)));
+        }
+    }
+
+    @Test
+    void testArchive() throws Exception {
+        Path zip = Paths.get("tmp/wget/archive.zip");
+        Files.deleteIfExists(zip);
+        Wget wget = new Wget();
+        wget.setRootUrl("http://localhost:" + server.getAddress().getPort() + "/");
+        wget.setJavadocDirName(zip.toString());
+        wget.setArchiveCompression("STORED");
+        wget.process();
+
+        assertTrue(Files.isRegularFile(zip));
+
+        delete(Paths.get("tmp/wget/archived"));
+        Main.main(new String[] { "codavaj", zip.toString(), "tmp/wget/archived" });
+
+        for (int i = 1; i <= 5; i++) {
+            String name = "vavi/test/codavaj/Test" + i + ".java";
+            assertArrayEquals(Files.readAllBytes(Paths.get("src/test/resources/codavaj/8/en", name)),
+                    Files.readAllBytes(Paths.get("tmp/wget/archived", name)));
+        }
+    }
+
+    /** writes a directory into a zip file, replacing it */
+    static void zip(Path dir, Path zip) throws IOException {
+        Path temp = Files.createTempFile(zip.getParent(), "zip", ".tmp");
+        Files.delete(temp);
+        try (FileSystem fs = FileSystems.newFileSystem(temp, Map.of("create", "true"));
+                Stream<Path> s = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) s.filter(Files::isRegularFile)::iterator) {
+                Path entry = fs.getPath(dir.relativize(file).toString().replace('\\', '/'));
+                if (entry.getParent() != null) {
+                    Files.createDirectories(entry.getParent());
+                }
+                Files.copy(file, entry);
+            }
+        }
+        Files.move(temp, zip, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Test
+    void testArchiveRewritten() throws Exception {
+        Path zip = Paths.get("tmp/wget/rewritten.zip");
+        Path out = Paths.get("tmp/wget/rewritten");
+        Path name = Paths.get("vavi/test/codavaj/Test1.java");
+
+        zip(root, zip);
+        delete(out);
+        Main.main(new String[] { "codavaj", zip.toString(), out.toString() });
+        assertArrayEquals(Files.readAllBytes(Paths.get("src/test/resources/codavaj/8/en").resolve(name)), Files.readAllBytes(out.resolve(name)));
+
+        // the archive is rewritten in the same process
+        Path edited = Paths.get("tmp/wget/edited");
+        delete(edited);
+        try (Stream<Path> s = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) s.filter(Files::isRegularFile)::iterator) {
+                Path copy = edited.resolve(root.relativize(file).toString());
+                Files.createDirectories(copy.getParent());
+                Files.copy(file, copy);
+            }
+        }
+        Path page = edited.resolve("vavi/test/codavaj/Test1.html");
+        Files.writeString(page, Files.readString(page).replace("description of this class.", "edited description."));
+        zip(edited, zip);
+        delete(out);
+        Main.main(new String[] { "codavaj", zip.toString(), out.toString() });
+        assertTrue(Files.readString(out.resolve(name)).contains("edited description."));
+    }
+
+    @Test
+    void testResumeFailed() throws Exception {
+        Path out = Paths.get("tmp/wget/resume");
+        delete(out);
+        Wget wget = new Wget();
+        wget.setRootUrl("http://localhost:" + server.getAddress().getPort() + "/");
+        wget.setJavadocDirName(out.toString());
+        wget.setRetryCount(1);
+        wget.setResumable(true);
+        unavailable.add("/vavi/test/codavaj/Test3.html");
+        try {
+            wget.process();
+        } finally {
+            unavailable.clear();
+        }
+
+        String url = "http://localhost:" + server.getAddress().getPort() + "/vavi/test/codavaj/Test3.html";
+        assertTrue(wget.getFailures().containsKey(url));
+        List<String> journal = Files.readAllLines(wget.getJournalPath());
+        assertTrue(journal.stream().anyMatch(line -> line.startsWith("+vavi/test/codavaj/Test3.html\t")));
+        assertFalse(journal.contains("-vavi/test/codavaj/Test3.html"));
+        assertTrue(journal.contains("-vavi/test/codavaj/Test1.html"));
+
+        requests.clear();
+        wget.process();
+
+        assertFalse(wget.getFailures().containsKey(url));
+        // pages saved or not found are not tried again
+        assertTrue(requests.contains("/vavi/test/codavaj/Test3.html"));
+        assertFalse(requests.contains("/vavi/test/codavaj/Test1.html"));
+        assertFalse(requests.contains("/vavi/test/codavaj/mailto:umjammer@gmail.com"));
+        assertTrue(Files.isRegularFile(out.resolve("vavi/test/codavaj/Test3.html")));
+        assertFalse(Files.exists(wget.getJournalPath()));
+    }
+
+    @Test
+    void testResumeDepth() throws Exception {
+        Path out = Paths.get("tmp/wget/resume-depth");
+        delete(out);
+        Files.createDirectories(out);
+        Wget wget = new Wget();
+        wget.setRootUrl("http://localhost:" + server.getAddress().getPort() + "/");
+        wget.setJavadocDirName(out.toString());
+        wget.setResumable(true);
+        CrawlScope scope = new CrawlScope();
+        scope.setMaxDepth(2);
+        wget.setScope(scope);
+        // seeds are done, a page at the max depth is left
+        StringBuilder journal = new StringBuilder();
+        for (String seed : new String[] { "index.html", "index-all.html", "constant-values.html", "serialized-form.html" }) {
+            journal.append("+").append(seed).append("\t0\n-").append(seed).append("\n");
+        }
+        journal.append("+vavi/test/codavaj/Test3.html\t2\n");
+        Files.writeString(wget.getJournalPath(), journal);
+
+        requests.clear();
+        wget.process();
+
+        // links of the page are deeper than the max, scripts are loaded by the engine
+        assertEquals(List.of("/vavi/test/codavaj/Test3.html"), requests.stream().filter(p -> p.endsWith(".html")).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testIncremental() throws Exception {
+        Path manifest = Paths.get("tmp/wget/incremental.manifest");
+        Files.deleteIfExists(manifest);
+        delete(Paths.get("tmp/wget/incremental"));
+        List<String> first = mirror(1, "incremental", true);
+        assertTrue(Files.exists(manifest));
+
+        notModified.set(0);
+        List<String> second = mirror(1, "incremental", true);
+
+        assertEquals(first, second);
+        assertEquals(first.size(), notModified.get());
+    }
+}
+
+/* */
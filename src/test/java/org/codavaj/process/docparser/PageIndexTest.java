@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.docparser;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.codavaj.process.docparser.PageIndex.Section;
+import org.dom4j.Document;
+import org.jaxen.BaseXPath;
+import org.jaxen.dom4j.DocumentNavigator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * PageIndexTest. selectors scoped to a section give the same nodes as ones
+ * over the whole page, visiting fewer nodes.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class PageIndexTest {
+
+    /** counts nodes taken from the child axis, "//" walks the tree by it */
+    static class CountingNavigator extends DocumentNavigator {
+        int visited;
+        @Override
+        public Iterator<?> getChildAxisIterator(Object contextNode) {
+            return count(super.getChildAxisIterator(contextNode));
+        }
+        @Override
+        public Iterator<?> getChildAxisIterator(Object contextNode, String localName, String namespacePrefix, String namespaceURI) {
+            return count(super.getChildAxisIterator(contextNode, localName, namespacePrefix, namespaceURI));
+        }
+        private Iterator<?> count(Iterator<?> i) {
+            return new Iterator<Object>() {
+                @Override public boolean hasNext() {
+                    return i.hasNext();
+                }
+                @Override public Object next() {
+                    visited++;
+                    return i.next();
+                }
+            };
+        }
+    }
+
+    /** @return {nodes, visited} */
+    static Object[] select(Object context, String xpath) throws Exception {
+        CountingNavigator navigator = new CountingNavigator();
+        List<?> nodes = new BaseXPath(xpath, navigator).selectNodes(context);
+        return new Object[] { nodes, navigator.visited };
+    }
+
+    static Document load(ParserUtils parserUtil) throws Exception {
+        return new HtmlParserHolder(parserUtil::getRemover).parse(parserUtil.openTypePage("vavi.test.codavaj.Test1"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"8/en", "11/en", "12/en", "13/en"})
+    void test(String version) throws Exception {
+        ParserUtils8 parserUtil = (ParserUtils8) ParserUtils.factory(String.format("src/test/resources/javadoc/%s/apidocs", version));
+        Document page = load(parserUtil);
+        PageIndex index = new PageIndex(page, parserUtil.getLabelXpath());
+        assertTrue(index.isSectioned());
+
+        String[][] cases = {
+            { "HEADER", "//" + parserUtil.getLabelXpath() },
+            { "SUMMARY", parserUtil.getFieldsXpath() },
+            { "DETAILS", "//" + parserUtil.getDetailsXpath() + "[contains(text(),'" + parserUtil.rb.getString("token.method_details") + "')]/following-sibling::LI" },
+        };
+        for (String[] c : cases) {
+            Object[] whole = select(page, c[1]);
+            Object[] scoped = select(index.scope(Section.valueOf(c[0])), PageIndex.scoped(c[1]));
+            assertFalse(((List<?>) whole[0]).isEmpty(), c[1]);
+            assertEquals(whole[0], scoped[0], c[1]);
+            assertTrue((int) scoped[1] < (int) whole[1], c[0] + ": " + scoped[1] + " < " + whole[1]);
+        }
+    }
+
+    @Test
+    void testNotSectioned() throws Exception {
+        ParserUtils parserUtil = ParserUtils.factory("src/test/resources/javadoc/6/en/apidocs");
+        Document page = load(parserUtil);
+        PageIndex index = new PageIndex(page, parserUtil.getLabelXpath());
+        assertFalse(index.isSectioned());
+        assertSame(page, index.scope(Section.SUMMARY));
+    }
+}
+
+/* */
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package org.codavaj.process.docparser;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+/**
+ * ParseRecorderTest. different words never share a pseudonym.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ParseRecorderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testShortNames() throws Exception {
+        ParseRecorder recorder = new ParseRecorder(dir.toString());
+
+        // more one letter words than one letter pseudonyms, and all of three letters
+        List<String> words = new ArrayList<>();
+        for (char c = 'a'; c <= 'z'; c++) {
+            words.add(String.valueOf(c));
+            words.add(String.valueOf(Character.toUpperCase(c)));
+        }
+        for (char c = '一'; c < '一' + 100; c++) {
+            words.add(String.valueOf(c));
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            for (char d = 'a'; d <= 'z'; d++) {
+                words.add("" + c + d);
+                for (char e = 'a'; e <= 'z'; e++) {
+                    words.add("" + c + d + e);
+                }
+            }
+        }
+        words.remove("int");
+        words.remove("com");
+
+        Map<String, String> owners = new HashMap<>();
+        for (String word : words) {
+            String pseudonym = recorder.scrub(word);
+            assertNull(owners.put(pseudonym, word), pseudonym);
+        }
+        assertNull(owners.get("int"));
+        assertNull(owners.get("com"));
+        assertEquals("int", recorder.scrub("int"));
+        assertEquals("com", recorder.scrub("com"));
+        for (String word : words) {
+            assertEquals(word, owners.get(recorder.scrub(word)));
+        }
+    }
+}
+
+/* */